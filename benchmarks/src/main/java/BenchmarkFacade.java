@@ -0,0 +1,195 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import textrank.benchmarks.HotPaths;
+
+/**
+ * Runs the benchmarked hot paths for the JMH benchmarks, which can't reach the solver's classes directly.  The
+ * frequency table is synthetic and generated on the fly, so no data files are needed.
+ */
+public class BenchmarkFacade implements HotPaths {
+    @Override
+    public void setUpTable() throws IOException {
+        frequencyFile = File.createTempFile("benchmark_quadgrams", ".txt");
+        binaryFile = File.createTempFile("benchmark_quadgrams", ".bin");
+        frequencyFile.deleteOnExit();
+        binaryFile.deleteOnExit();
+        writeSyntheticTable(frequencyFile.getPath());
+        TextScorer.convertFrequencyFile(frequencyFile.getPath(), binaryFile.getPath());
+        scorer = TextScorer.fromFrequencyFile(frequencyFile.getPath());
+        scorer16 = scorer.quantized(16);
+        scorer8 = scorer.quantized(8);
+    }
+
+    @Override
+    public void setUpText(int length) {
+        text = syntheticText(length, length);
+        letters = TextScoreUtilities.toLetterIndices(text);
+        output = new byte[letters.length];
+        key = KeyedSubstitution.random(new SplittableRandom(length));
+        model = CipherNGramModel.fromLetters(letters, scorer.getNGramLength());
+        swapScorer = new IncrementalSwapScorer(model, scorer);
+        swapScorer.reset(key);
+        swapScorer16 = new IncrementalSwapScorer(model, scorer16);
+        swapScorer16.reset(key);
+        cipherModel = CipherNGramModel.fromCipherText(syntheticText(length, -length), 4);
+        random = new SplittableRandom(length);
+    }
+
+    @Override
+    public double scoreString() {
+        return scorer.score(text);
+    }
+
+    @Override
+    public double scoreLetters() {
+        return scorer.score(letters);
+    }
+
+    @Override
+    public double scoreLettersQuantized16() {
+        return scorer16.score(letters);
+    }
+
+    @Override
+    public double scoreLettersQuantized8() {
+        return scorer8.score(letters);
+    }
+
+    @Override
+    public double scoreModel() {
+        return scorer.score(model, key);
+    }
+
+    @Override
+    public double scoreModelQuantized16() {
+        return scorer16.score(model, key);
+    }
+
+    @Override
+    public int filterContent() {
+        return TextScoreUtilities.filterContent(text).length();
+    }
+
+    @Override
+    public int forEachNGram() {
+        final int[] letterCount = new int[1];
+        TextScoreUtilities.forEachNGram(text, 4, (String nGram) -> letterCount[0] += nGram.length());
+        return letterCount[0];
+    }
+
+    @Override
+    public int applySubstitutionString() {
+        return key.applySubstitution(text).length();
+    }
+
+    @Override
+    public byte[] applySubstitutionLetters() {
+        key.applySubstitution(letters, output);
+        return output;
+    }
+
+    @Override
+    public double swapDelta() {
+        key.swapRandomPair();
+        final double delta = swapScorer.scoreLastSwap(key);
+        key.undoLastRandomSwap();
+        return delta;
+    }
+
+    @Override
+    public double swapDeltaQuantized16() {
+        key.swapRandomPair();
+        final double delta = swapScorer16.scoreLastSwap(key);
+        key.undoLastRandomSwap();
+        return delta;
+    }
+
+    @Override
+    public void swapRandomPair() {
+        swapKey.swapRandomPair();
+        swapKey.undoLastRandomSwap();
+    }
+
+    @Override
+    public int fromFrequencyFile() throws IOException {
+        return TextScorer.fromFrequencyFile(frequencyFile.getPath()).getNGramLength();
+    }
+
+    @Override
+    public int fromBinaryFile() throws IOException {
+        return TextScorer.fromBinaryFile(binaryFile.getPath()).getNGramLength();
+    }
+
+    @Override
+    public double hillClimb() {
+        SearchContext context = new SearchContext(cipherModel, scorer, 1000, random.split(), () -> false);
+        return scorer.score(cipherModel, search.search(context));
+    }
+
+    /**
+     * Writes a synthetic quadgram frequency file.  Counts follow the product of English letter frequencies, which
+     * gives a realistic spread of table values without needing a corpus.
+     */
+    private static void writeSyntheticTable(String fileName) throws IOException {
+        TextScoreFrequencyGenerator generator = new TextScoreFrequencyGenerator(4);
+        generator.recordKnownMaterial(syntheticText(2000000, 0));
+        generator.saveToFile(fileName);
+    }
+
+    /**
+     * Generates text whose letters follow English letter frequencies, with spaces and punctuation mixed in
+     * @param length The number of characters to generate
+     * @param seed The seed for the generated text
+     */
+    private static String syntheticText(int length, long seed) {
+        double total = 0.0;
+        for (double frequency : letterFrequencies) {
+            total += frequency;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; ++i) {
+            if (random.nextInt(6) == 0) {
+                sb.append(random.nextInt(10) == 0 ? ", " : " ");
+                continue;
+            }
+            double choice = random.nextDouble() * total;
+            int letter = 0;
+            while (letter < 25 && choice >= letterFrequencies[letter]) {
+                choice -= letterFrequencies[letter];
+                ++letter;
+            }
+            sb.append((char) ('a' + letter));
+        }
+        return sb.toString();
+    }
+
+    /** Approximate relative frequency of each letter in English text, A through Z */
+    private static final double[] letterFrequencies = {
+            8.2, 1.5, 2.8, 4.3, 12.7, 2.2, 2.0, 6.1, 7.0, 0.15, 0.77, 4.0, 2.4,
+            6.7, 7.5, 1.9, 0.095, 6.0, 6.3, 9.1, 2.8, 0.98, 2.4, 0.15, 2.0, 0.074
+    };
+
+    private File frequencyFile;
+    private File binaryFile;
+    private TextScorer scorer;
+    private TextScorer scorer16;
+    private TextScorer scorer8;
+
+    private String text;
+    private byte[] letters;
+    private byte[] output;
+    private KeyedSubstitution key;
+    private CipherNGramModel model;
+    private IncrementalSwapScorer swapScorer;
+    private IncrementalSwapScorer swapScorer16;
+    /** The ciphertext climbed by hillClimb, generated separately from the scored text */
+    private CipherNGramModel cipherModel;
+    private SplittableRandom random;
+
+    private final KeyedSubstitution swapKey = KeyedSubstitution.random(new SplittableRandom(0));
+    private final SearchStrategy search = new HillClimbSearch();
+}
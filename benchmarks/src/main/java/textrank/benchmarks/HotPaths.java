@@ -0,0 +1,55 @@
+package textrank.benchmarks;
+
+import java.io.IOException;
+
+/**
+ * The operations timed by the benchmarks.  The solver's classes are in the unnamed package, which a named package
+ * can't import, and JMH requires benchmarks to be in a named package, so the benchmarks reach the solver through this
+ * interface.  It is implemented by BenchmarkFacade, in the unnamed package, and each benchmark calls one of its
+ * methods, so that every hot path is reached from a call site of its own.
+ */
+public interface HotPaths {
+    /** Loads the facade, which can't be named in code outside the unnamed package */
+    static HotPaths load() {
+        try {
+            return (HotPaths) Class.forName("BenchmarkFacade").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Builds the synthetic quadgram table, and saves it as text and binary frequency files */
+    void setUpTable() throws IOException;
+
+    /**
+     * Generates the texts, key and ciphertext models used by the scoring and search benchmarks
+     * @param length The number of characters in each text
+     */
+    void setUpText(int length);
+
+    double scoreString();
+    double scoreLetters();
+    double scoreLettersQuantized16();
+    double scoreLettersQuantized8();
+    double scoreModel();
+    double scoreModelQuantized16();
+    int filterContent();
+    int forEachNGram();
+    int applySubstitutionString();
+    byte[] applySubstitutionLetters();
+
+    /** Makes a random swap to the key, scores it incrementally and undoes it */
+    double swapDelta();
+
+    /** Makes a random swap to the key, scores it incrementally with the 16-bit table and undoes it */
+    double swapDeltaQuantized16();
+
+    /** Makes a random swap to a key and undoes it */
+    void swapRandomPair();
+
+    int fromFrequencyFile() throws IOException;
+    int fromBinaryFile() throws IOException;
+
+    /** Runs one complete hill-climbing restart, as run by the solver, and scores its key */
+    double hillClimb();
+}
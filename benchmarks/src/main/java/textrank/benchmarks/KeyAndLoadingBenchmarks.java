@@ -0,0 +1,46 @@
+package textrank.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Random key swaps, and loading the synthetic quadgram table from text and binary frequency files */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyAndLoadingBenchmarks {
+    @Setup
+    public void setUp() throws IOException {
+        hotPaths.setUpTable();
+    }
+
+    @Benchmark
+    public void swapRandomPair() {
+        hotPaths.swapRandomPair();
+    }
+
+    @Benchmark
+    public int fromFrequencyFile() throws IOException {
+        return hotPaths.fromFrequencyFile();
+    }
+
+    @Benchmark
+    public int fromBinaryFile() throws IOException {
+        return hotPaths.fromBinaryFile();
+    }
+
+    private final HotPaths hotPaths = HotPaths.load();
+}
@@ -0,0 +1,96 @@
+package textrank.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Scoring, filtering and substitution of texts of several lengths against a synthetic quadgram table */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmarks {
+    @Setup
+    public void setUp() throws IOException {
+        hotPaths.setUpTable();
+        hotPaths.setUpText(length);
+    }
+
+    @Benchmark
+    public double scoreString() {
+        return hotPaths.scoreString();
+    }
+
+    @Benchmark
+    public double scoreLetters() {
+        return hotPaths.scoreLetters();
+    }
+
+    @Benchmark
+    public double scoreLettersQuantized16() {
+        return hotPaths.scoreLettersQuantized16();
+    }
+
+    @Benchmark
+    public double scoreLettersQuantized8() {
+        return hotPaths.scoreLettersQuantized8();
+    }
+
+    @Benchmark
+    public double scoreModel() {
+        return hotPaths.scoreModel();
+    }
+
+    @Benchmark
+    public double scoreModelQuantized16() {
+        return hotPaths.scoreModelQuantized16();
+    }
+
+    @Benchmark
+    public int filterContent() {
+        return hotPaths.filterContent();
+    }
+
+    @Benchmark
+    public int forEachNGram() {
+        return hotPaths.forEachNGram();
+    }
+
+    @Benchmark
+    public int applySubstitutionString() {
+        return hotPaths.applySubstitutionString();
+    }
+
+    @Benchmark
+    public byte[] applySubstitutionLetters() {
+        return hotPaths.applySubstitutionLetters();
+    }
+
+    @Benchmark
+    public double swapDelta() {
+        return hotPaths.swapDelta();
+    }
+
+    @Benchmark
+    public double swapDeltaQuantized16() {
+        return hotPaths.swapDeltaQuantized16();
+    }
+
+    @Param({"100", "1000", "10000"})
+    public int length;
+
+    private final HotPaths hotPaths = HotPaths.load();
+}
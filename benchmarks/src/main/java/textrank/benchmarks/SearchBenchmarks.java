@@ -0,0 +1,41 @@
+package textrank.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** One complete hill-climbing restart, as run by the solver, on a short and a long ciphertext */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmarks {
+    @Setup
+    public void setUp() throws IOException {
+        hotPaths.setUpTable();
+        hotPaths.setUpText(length);
+    }
+
+    @Benchmark
+    public double hillClimb() {
+        return hotPaths.hillClimb();
+    }
+
+    @Param({"200", "2000"})
+    public int length;
+
+    private final HotPaths hotPaths = HotPaths.load();
+}
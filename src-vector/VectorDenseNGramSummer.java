@@ -0,0 +1,76 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Sums nGram scores with the help of the Vector API.  The base-26 index of each nGram is built for a full vector of
+ * nGrams at a time, which replaces the scalar scorer's serial chain of rolling index updates with independent lanes.
+ * The scores are then looked up from each block of indices.  They are read with ordinary loads rather than a vector
+ * gather, since on current JDKs gathers by an index array are not compiled to gather instructions and run at half
+ * the speed of the scalar scorer.  Because the sum is accumulated block by block, it can differ from the scalar sum
+ * in the last few bits.
+ *
+ * This class needs the jdk.incubator.vector module to compile and run; TextScorer loads it by name and falls back to
+ * scalar scoring without it.
+ */
+class VectorDenseNGramSummer implements DenseNGramSummer {
+    @Override
+    public double sum(double[] scores, byte[] letters, int offset, int length, int nGramLength) {
+        final int nGramCount = length - nGramLength + 1;
+        final int[] indices = threadIndices.get();
+        double total = 0.0;
+
+        // Each lane builds one nGram's index, since the letters of an nGram are the same lane of successive windows
+        int n = 0;
+        for (final int bound = nGramCount - blockLength + 1; n < bound; n += blockLength) {
+            final int start = offset + n;
+            for (int part = 0; part < partCount; ++part) {
+                IntVector index = letterWindow(letters, start, part);
+                for (int k = 1; k < nGramLength; ++k) {
+                    index = index.mul(26).add(letterWindow(letters, start + k, part));
+                }
+                index.intoArray(indices, part * intSpecies.length());
+            }
+
+            double blockTotal = 0.0;
+            for (int i = 0; i < blockLength; ++i) {
+                blockTotal += scores[indices[i]];
+            }
+            total += blockTotal;
+        }
+
+        for (; n < nGramCount; ++n) {
+            int index = 0;
+            for (int k = offset + n; k < offset + n + nGramLength; ++k) {
+                index = (index * 26) + letters[k];
+            }
+            total += scores[index];
+        }
+        return total;
+    }
+
+    /**
+     * Loads a block of letters and widens one part of it to one letter per int lane
+     * @param part Which run of int-vector-length letters in the block to widen
+     */
+    private static IntVector letterWindow(byte[] letters, int start, int part) {
+        return (IntVector) ByteVector.fromArray(byteSpecies, letters, start)
+                .convertShape(VectorOperators.B2I, intSpecies, part);
+    }
+
+    private static final VectorSpecies<Integer> intSpecies = IntVector.SPECIES_PREFERRED;
+    /**
+     * Bytes are loaded in vectors with as many lanes as the int vectors they are widened into, but no narrower than
+     * 64 bits, the smallest shape there is.  With 128-bit int vectors, each byte vector therefore widens in two parts.
+     */
+    private static final VectorSpecies<Byte> byteSpecies = VectorSpecies.of(byte.class,
+            VectorShape.forBitSize(Math.max(64, intSpecies.vectorBitSize() / 4)));
+    /** The number of int vectors each byte vector widens into */
+    private static final int partCount = byteSpecies.length() / intSpecies.length();
+    /** The number of nGrams indexed at once */
+    private static final int blockLength = byteSpecies.length();
+    /** Scratch space for each thread's block of indices, so that scoring doesn't allocate */
+    private static final ThreadLocal<int[]> threadIndices = ThreadLocal.withInitial(() -> new int[blockLength]);
+}
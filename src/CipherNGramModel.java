@@ -0,0 +1,151 @@
+import java.util.Arrays;
+
+/**
+ * A ciphertext collapsed into the distinct nGrams it contains and the number of times each one appears.  Under any
+ * key, the score of the ciphertext is the sum over these nGrams of their count times the score of their decoding, so
+ * the cost of evaluating a key depends on the number of distinct nGrams rather than the length of the text.
+ */
+public class CipherNGramModel {
+    private CipherNGramModel(int length) {
+        if (length < 1 || length > TextScoreUtilities.maxIndexedNGramLength) {
+            throw new IllegalArgumentException();
+        }
+        nGramLength = length;
+    }
+
+    /**
+     * Builds the nGram histogram of a ciphertext
+     * @param cipherText The ciphertext.  Characters outside of A-Z are filtered as they are when scoring.
+     * @param nGramLength The length of nGram counted, which must match the scorer it will be used with
+     * @return The compiled model of the ciphertext
+     */
+    public static CipherNGramModel fromCipherText(String cipherText, int nGramLength) {
+        return fromLetters(TextScoreUtilities.toLetterIndices(cipherText), nGramLength);
+    }
+
+    /**
+     * Builds the nGram histogram of pre-filtered ciphertext
+     * @param letters Letter indices (A is 0, Z is 25), as produced by TextScoreUtilities.toLetterIndices
+     * @param nGramLength The length of nGram counted
+     */
+    static CipherNGramModel fromLetters(byte[] letters, int nGramLength) {
+        CipherNGramModel model = new CipherNGramModel(nGramLength);
+
+        // Sorting the base-26 value of every window groups identical nGrams together
+        final int windowCount = Math.max(0, letters.length - nGramLength + 1);
+        long[] windows = new long[windowCount];
+        for (int w = 0; w < windowCount; ++w) {
+            long index = 0;
+            for (int i = w; i < w + nGramLength; ++i) {
+                index = (index * 26) + letters[i];
+            }
+            windows[w] = index;
+        }
+        Arrays.sort(windows);
+
+        int distinct = 0;
+        for (int w = 0; w < windowCount; ++w) {
+            if (w == 0 || windows[w] != windows[w - 1]) {
+                ++distinct;
+            }
+        }
+
+        model.nGramLetters = new byte[distinct * nGramLength];
+        model.nGramCounts = new int[distinct];
+        int current = -1;
+        for (int w = 0; w < windowCount; ++w) {
+            if (w == 0 || windows[w] != windows[w - 1]) {
+                ++current;
+                long index = windows[w];
+                for (int i = nGramLength - 1; i >= 0; --i) {
+                    model.nGramLetters[(current * nGramLength) + i] = (byte) (index % 26);
+                    index /= 26;
+                }
+            }
+            ++model.nGramCounts[current];
+        }
+        model.totalCount = windowCount;
+        model.indexNGramsByLetter();
+        return model;
+    }
+
+    /**
+     * Builds the nGram histogram of a sample of pre-filtered ciphertext, made of evenly spaced blocks so that it
+     * represents the whole text rather than its opening.  nGrams spanning the joins between blocks are counted too;
+     * with long blocks they are too few to matter.
+     * @param letters Letter indices (A is 0, Z is 25), as produced by TextScoreUtilities.toLetterIndices
+     * @param sampleLength The number of letters sampled.  The whole text is used if it is no longer than this.
+     * @param nGramLength The length of nGram counted
+     */
+    static CipherNGramModel fromSample(byte[] letters, int sampleLength, int nGramLength) {
+        if (sampleLength >= letters.length) {
+            return fromLetters(letters, nGramLength);
+        }
+
+        byte[] sample = new byte[sampleLength];
+        for (int block = 0, filled = 0; block < sampleBlocks; ++block) {
+            final int blockLength = ((sampleLength * (block + 1)) / sampleBlocks) - filled;
+            final int blockStart = (int) (((long) letters.length * block) / sampleBlocks);
+            System.arraycopy(letters, blockStart, sample, filled, blockLength);
+            filled += blockLength;
+        }
+        return fromLetters(sample, nGramLength);
+    }
+
+    /** Returns the length of the nGrams counted by this model */
+    public int getNGramLength() {
+        return nGramLength;
+    }
+
+    /** Returns the number of distinct nGrams in the ciphertext */
+    public int getDistinctCount() {
+        return nGramCounts.length;
+    }
+
+    /** Returns the total number of nGrams in the ciphertext, including repeats */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /** Records, for each ciphertext letter, every distinct nGram containing it */
+    private void indexNGramsByLetter() {
+        int[] counts = new int[26];
+        int[] lastNGram = new int[26];
+        for (int pass = 0; pass < 2; ++pass) {
+            Arrays.fill(lastNGram, -1);
+            for (int n = 0; n < nGramCounts.length; ++n) {
+                for (int i = n * nGramLength; i < (n + 1) * nGramLength; ++i) {
+                    final int letter = nGramLetters[i];
+                    if (lastNGram[letter] == n) {
+                        continue;
+                    }
+                    lastNGram[letter] = n;
+                    if (pass == 0) {
+                        ++counts[letter];
+                    } else {
+                        nGramsByLetter[letter][counts[letter]++] = n;
+                    }
+                }
+            }
+
+            if (pass == 0) {
+                for (int c = 0; c < 26; ++c) {
+                    nGramsByLetter[c] = new int[counts[c]];
+                    counts[c] = 0;
+                }
+            }
+        }
+    }
+
+    private final int nGramLength;
+    /** The letters of each distinct nGram, stored consecutively */
+    byte[] nGramLetters;
+    /** The number of times each distinct nGram appears in the ciphertext */
+    int[] nGramCounts;
+    /** For each ciphertext letter, the distinct nGrams containing it */
+    final int[][] nGramsByLetter = new int[26][];
+    private long totalCount;
+
+    /** The number of evenly spaced blocks a sample of the ciphertext is drawn from */
+    private static final int sampleBlocks = 8;
+}
@@ -0,0 +1,35 @@
+/**
+ * Gives the temperature of an annealing search as it progresses.  Temperatures are measured per nGram of ciphertext,
+ * so that one schedule suits ciphertexts of any length.
+ */
+public interface CoolingSchedule {
+    /**
+     * Returns the temperature at a point in the search
+     * @param progress The fraction of the search completed, from 0 to 1
+     */
+    double temperature(double progress);
+
+    /**
+     * Cools geometrically, so that the temperature falls by the same factor at each step
+     * @param start The temperature at the start of the search
+     * @param end The temperature at the end of the search.  Must be positive.
+     */
+    static CoolingSchedule exponential(double start, double end) {
+        if (start <= 0.0 || end <= 0.0) {
+            throw new IllegalArgumentException();
+        }
+        return (double progress) -> start * Math.pow(end / start, progress);
+    }
+
+    /**
+     * Cools linearly, so that the temperature falls by the same amount at each step
+     * @param start The temperature at the start of the search
+     * @param end The temperature at the end of the search
+     */
+    static CoolingSchedule linear(double start, double end) {
+        if (start < 0.0 || end < 0.0) {
+            throw new IllegalArgumentException();
+        }
+        return (double progress) -> start + ((end - start) * progress);
+    }
+}
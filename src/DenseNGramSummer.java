@@ -0,0 +1,15 @@
+/**
+ * Sums the scores of every nGram of a text from a dense table.  TextScorer does this one nGram at a time; other
+ * implementations, such as the Vector API one in src-vector, are loaded by name when available.
+ */
+interface DenseNGramSummer {
+    /**
+     * @param scores The score of every nGram, indexed by base-26 value
+     * @param letters Letter indices (A is 0, Z is 25)
+     * @param offset The index of the first letter to be ranked
+     * @param length The number of letters to be ranked, at least the nGram length
+     * @param nGramLength The length of each nGram
+     * @return The sum of the scores of each nGram
+     */
+    double sum(double[] scores, byte[] letters, int offset, int length, int nGramLength);
+}
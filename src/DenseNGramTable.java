@@ -0,0 +1,23 @@
+/**
+ * Stores the score of every possible nGram in a flat array indexed by base-26 value, so that lookups require no
+ * hashing or boxing.  Only practical for short nGrams, since the table grows by a factor of 26 with each letter.
+ */
+class DenseNGramTable implements NGramTable {
+    /**
+     * @param nGramScores The score of every nGram, with unseen nGrams already set to the baseline floor
+     */
+    DenseNGramTable(double[] nGramScores) {
+        scores = nGramScores;
+    }
+
+    public double score(long index) {
+        return scores[(int) index];
+    }
+
+    /** Returns the table itself, for scoring many nGrams at once */
+    double[] getScores() {
+        return scores;
+    }
+
+    private final double[] scores;
+}
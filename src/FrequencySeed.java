@@ -0,0 +1,119 @@
+import java.util.Arrays;
+
+/**
+ * Builds a starting key by frequency analysis, so that searches begin near the answer rather than from a random key.
+ * Each ciphertext letter is first decoded as the language letter of the same frequency rank.  Optionally, pairs of
+ * letters are then swapped while doing so brings the bigram frequencies of the decoded ciphertext closer to the
+ * language's.
+ */
+class FrequencySeed {
+    private FrequencySeed() {}
+
+    /**
+     * Builds the starting key for a ciphertext
+     * @param model The nGram histogram of the ciphertext
+     * @param scorer The scorer whose table gives the language's frequencies.  Its nGram length must match the model's.
+     * @param useBigrams Whether to refine the key by bigram frequencies, which needs nGrams of at least two letters
+     */
+    static KeyedSubstitution build(CipherNGramModel model, TextScorer scorer, boolean useBigrams) {
+        final int length = model.getNGramLength();
+        double[] cipherLetters = new double[26];
+        double[] cipherBigrams = new double[26 * 26];
+        for (int n = 0; n < model.nGramCounts.length; ++n) {
+            final int first = model.nGramLetters[n * length];
+            cipherLetters[first] += model.nGramCounts[n];
+            if (length > 1) {
+                cipherBigrams[(first * 26) + model.nGramLetters[(n * length) + 1]] += model.nGramCounts[n];
+            }
+        }
+
+        // Match letters by frequency rank.  Letters absent from the ciphertext take the rarest language letters.
+        Integer[] cipherOrder = lettersByFrequency(cipherLetters);
+        Integer[] languageOrder = lettersByFrequency(scorer.leadingDistribution(1));
+        int[] plainLetters = new int[26];
+        for (int rank = 0; rank < 26; ++rank) {
+            plainLetters[cipherOrder[rank]] = languageOrder[rank];
+        }
+
+        if (useBigrams && length > 1) {
+            normalize(cipherBigrams);
+            refineByBigrams(plainLetters, cipherBigrams, scorer.leadingDistribution(2));
+        }
+
+        char[] key = new char[26];
+        for (int letter = 0; letter < 26; ++letter) {
+            key[letter] = (char) ('A' + plainLetters[letter]);
+        }
+        return KeyedSubstitution.fromKey(new String(key));
+    }
+
+    /** Returns the letter indices ordered from most to least frequent */
+    private static Integer[] lettersByFrequency(double[] frequencies) {
+        Integer[] letters = new Integer[26];
+        for (int letter = 0; letter < 26; ++letter) {
+            letters[letter] = letter;
+        }
+        Arrays.sort(letters, (a, b) -> Double.compare(frequencies[b], frequencies[a]));
+        return letters;
+    }
+
+    /** Scales counts to sum to 1 */
+    private static void normalize(double[] counts) {
+        double total = 0.0;
+        for (double count : counts) {
+            total += count;
+        }
+        if (total > 0.0) {
+            for (int i = 0; i < counts.length; ++i) {
+                counts[i] /= total;
+            }
+        }
+    }
+
+    /**
+     * Swaps the decodings of pairs of ciphertext letters while any swap brings the decoded bigram frequencies closer
+     * to the language's, measured as the sum of absolute differences
+     * @param plainLetters The decoding of each ciphertext letter, updated in place
+     * @param cipherBigrams The frequency of each ciphertext bigram, indexed by base-26 value
+     * @param languageBigrams The frequency of each bigram in the language, indexed by base-26 value
+     */
+    private static void refineByBigrams(int[] plainLetters, double[] cipherBigrams, double[] languageBigrams) {
+        double distance = bigramDistance(plainLetters, cipherBigrams, languageBigrams);
+        boolean improved = true;
+        for (int pass = 0; improved && pass < maxBigramPasses; ++pass) {
+            improved = false;
+            for (int a = 0; a < 26; ++a) {
+                for (int b = a + 1; b < 26; ++b) {
+                    swap(plainLetters, a, b);
+                    final double swapped = bigramDistance(plainLetters, cipherBigrams, languageBigrams);
+                    if (swapped < distance) {
+                        distance = swapped;
+                        improved = true;
+                    } else {
+                        swap(plainLetters, a, b);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double bigramDistance(int[] plainLetters, double[] cipherBigrams, double[] languageBigrams) {
+        double distance = 0.0;
+        for (int a = 0; a < 26; ++a) {
+            for (int b = 0; b < 26; ++b) {
+                distance += Math.abs(cipherBigrams[(a * 26) + b]
+                        - languageBigrams[(plainLetters[a] * 26) + plainLetters[b]]);
+            }
+        }
+        return distance;
+    }
+
+    private static void swap(int[] letters, int a, int b) {
+        final int held = letters[a];
+        letters[a] = letters[b];
+        letters[b] = held;
+    }
+
+    /** Bounds the bigram refinement, which normally settles within a few passes */
+    private static final int maxBigramPasses = 20;
+}
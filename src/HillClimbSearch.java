@@ -0,0 +1,40 @@
+/**
+ * Greedy hill climbing: random swaps of the key are kept only if they improve the score, until a number of swaps in a
+ * row have failed to.  This is the solver's default search.
+ */
+public class HillClimbSearch implements SearchStrategy {
+    @Override
+    public KeyedSubstitution search(SearchContext context) {
+        KeyedSubstitution key = context.newStartingKey();
+
+        // Each swap is judged by its effect on the nGrams it touches, before any plaintext is built.  Because
+        // rejected swaps are undone, the current key is always the best one seen.
+        IncrementalSwapScorer swapScorer = context.newSwapScorer();
+        swapScorer.reset(key);
+        climb(key, swapScorer, context);
+        return key;
+    }
+
+    /**
+     * Climbs from a key until the key improvement threshold's worth of swaps in a row have failed to improve it
+     * @param key The key to improve, which is changed in place
+     * @param swapScorer A swap scorer already reset to the key
+     * @param context The restart being searched
+     */
+    static void climb(KeyedSubstitution key, IncrementalSwapScorer swapScorer, SearchContext context) {
+        int iterationsSinceImprovement = 0;
+        while (iterationsSinceImprovement < context.getKeyImprovementThreshold() && !context.isStopRequested()) {
+            key.swapRandomPair();
+            if (swapScorer.scoreLastSwap(key) > 0.0) {
+                swapScorer.acceptLastSwap();
+                iterationsSinceImprovement = 0;
+                if (context.isKnownAnswer(key)) {
+                    break;
+                }
+            } else {
+                key.undoLastRandomSwap();
+                ++iterationsSinceImprovement;
+            }
+        }
+    }
+}
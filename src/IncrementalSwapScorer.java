@@ -0,0 +1,213 @@
+import java.util.Arrays;
+
+/**
+ * Tracks the score of a ciphertext under a changing key.  Swapping two letters of a key only changes the nGrams
+ * that contain one of those two ciphertext letters, so the change in score of a candidate swap can be found from
+ * those nGrams alone, without decoding or rescoring the rest of the text.  With a quantized scorer, the nGrams'
+ * fixed-point codes are tracked instead of their scores, and the change is summed as integers.
+ */
+class IncrementalSwapScorer {
+    /**
+     * @param cipherModel The nGram histogram of the ciphertext
+     * @param textScorer The scorer used to rank each nGram.  Its nGram length must match the model's.
+     */
+    IncrementalSwapScorer(CipherNGramModel cipherModel, TextScorer textScorer) {
+        this(new CipherNGramModel[] {cipherModel}, new TextScorer[] {textScorer}, new double[] {1.0});
+    }
+
+    /**
+     * Tracks a weighted sum of the scores given by several scorers, such as scorers of different nGram lengths
+     * @param cipherModels The nGram histogram of the ciphertext for each scorer.  Lengths must match the scorers'.
+     * @param textScorers The scorers used to rank each nGram
+     * @param weights The weight of each scorer in the total
+     */
+    IncrementalSwapScorer(CipherNGramModel[] cipherModels, TextScorer[] textScorers, double[] weights) {
+        if (cipherModels.length != textScorers.length || weights.length != textScorers.length
+                || textScorers.length == 0) {
+            throw new IllegalArgumentException();
+        }
+        components = new Component[textScorers.length];
+        for (int i = 0; i < components.length; ++i) {
+            components[i] = new Component(cipherModels[i], textScorers[i], weights[i]);
+        }
+    }
+
+    /** The ciphertext's nGrams of one length, decoded and scored with the current key */
+    private static class Component {
+        Component(CipherNGramModel cipherModel, TextScorer textScorer, double scorerWeight) {
+            if (cipherModel.getNGramLength() != textScorer.getNGramLength()) {
+                throw new IllegalArgumentException();
+            }
+            model = cipherModel;
+            scorer = textScorer;
+            weight = scorerWeight;
+            codes = textScorer.getQuantizedTable();
+
+            final int distinctCount = model.getDistinctCount();
+            nGramScores = (codes == null) ? new double[distinctCount] : null;
+            nGramStamps = new int[distinctCount];
+            pendingNGrams = new int[distinctCount];
+            pendingScores = (codes == null) ? new double[distinctCount] : null;
+            nGramCodes = (codes == null) ? null : new int[distinctCount];
+            pendingCodes = (codes == null) ? null : new int[distinctCount];
+        }
+
+        double reset(KeyedSubstitution key) {
+            final int length = model.getNGramLength();
+            if (codes != null) {
+                long codeSum = 0;
+                long nGramCount = 0;
+                for (int n = 0; n < nGramCodes.length; ++n) {
+                    nGramCodes[n] = codes.code(key.decodeNGram(model.nGramLetters, n * length, length));
+                    codeSum += (long) model.nGramCounts[n] * nGramCodes[n];
+                    nGramCount += model.nGramCounts[n];
+                }
+                return codes.toScore(codeSum, nGramCount);
+            }
+
+            double score = 0.0;
+            for (int n = 0; n < nGramScores.length; ++n) {
+                nGramScores[n] = scorer.nGramScore(key.decodeNGram(model.nGramLetters, n * length, length));
+                score += model.nGramCounts[n] * nGramScores[n];
+            }
+            return score;
+        }
+
+        double scoreLastSwap(KeyedSubstitution key) {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(nGramStamps, 0);
+                stamp = 1;
+            }
+
+            if (codes != null) {
+                return scoreLastSwapCodes(key);
+            }
+
+            final int length = model.getNGramLength();
+            pendingCount = 0;
+            double delta = 0.0;
+            for (int i = 0; i < 2; ++i) {
+                for (int n : model.nGramsByLetter[key.lastSwappedIndex(i)]) {
+                    // nGrams containing both swapped letters are only counted once
+                    if (nGramStamps[n] == stamp) {
+                        continue;
+                    }
+                    nGramStamps[n] = stamp;
+
+                    final double score = scorer.nGramScore(key.decodeNGram(model.nGramLetters, n * length, length));
+                    delta += model.nGramCounts[n] * (score - nGramScores[n]);
+                    pendingNGrams[pendingCount] = n;
+                    pendingScores[pendingCount] = score;
+                    ++pendingCount;
+                }
+            }
+            return delta;
+        }
+
+        /**
+         * Scores a swap as scoreLastSwap does, summing the change in the nGrams' codes.  The number of nGrams is
+         * unchanged, so the table's offset cancels and only the sum of codes needs converting to a score.
+         */
+        private double scoreLastSwapCodes(KeyedSubstitution key) {
+            final int length = model.getNGramLength();
+            pendingCount = 0;
+            long codeDelta = 0;
+            for (int i = 0; i < 2; ++i) {
+                for (int n : model.nGramsByLetter[key.lastSwappedIndex(i)]) {
+                    if (nGramStamps[n] == stamp) {
+                        continue;
+                    }
+                    nGramStamps[n] = stamp;
+
+                    final int code = codes.code(key.decodeNGram(model.nGramLetters, n * length, length));
+                    codeDelta += (long) model.nGramCounts[n] * (code - nGramCodes[n]);
+                    pendingNGrams[pendingCount] = n;
+                    pendingCodes[pendingCount] = code;
+                    ++pendingCount;
+                }
+            }
+            return codes.toScore(codeDelta, 0);
+        }
+
+        void acceptLastSwap() {
+            if (codes != null) {
+                for (int i = 0; i < pendingCount; ++i) {
+                    nGramCodes[pendingNGrams[i]] = pendingCodes[i];
+                }
+            } else {
+                for (int i = 0; i < pendingCount; ++i) {
+                    nGramScores[pendingNGrams[i]] = pendingScores[i];
+                }
+            }
+            pendingCount = 0;
+        }
+
+        private final CipherNGramModel model;
+        private final TextScorer scorer;
+        final double weight;
+        /** The score of each distinct nGram decoded with the current key */
+        private final double[] nGramScores;
+        /** Marks nGrams already visited while scoring a swap, to avoid double counting */
+        private final int[] nGramStamps;
+        private int stamp = 0;
+        /** nGrams changed by the most recently scored swap, and their new scores */
+        private final int[] pendingNGrams;
+        private final double[] pendingScores;
+        private int pendingCount = 0;
+        /** The scorer's fixed-point table if it is quantized, in which case codes are tracked instead of scores */
+        private final QuantizedNGramTable codes;
+        /** The code of each distinct nGram decoded with the current key, and those of the pending swap */
+        private final int[] nGramCodes;
+        private final int[] pendingCodes;
+    }
+
+    /**
+     * Decodes every nGram of the ciphertext with a new key
+     * @param key The key now in use
+     * @return The score of the ciphertext decoded with the key
+     */
+    double reset(KeyedSubstitution key) {
+        double score = 0.0;
+        for (Component component : components) {
+            score += component.weight * component.reset(key);
+        }
+        return score;
+    }
+
+    /**
+     * Calculates how much the most recent random swap of the key changed the score.  The swap must be resolved with
+     * acceptLastSwap, or undone on the key, before the key is changed again.
+     * @param key The key, with its most recent random swap already applied
+     * @return The change in score caused by the swap
+     */
+    double scoreLastSwap(KeyedSubstitution key) {
+        ++evaluationCount;
+        double delta = 0.0;
+        for (Component component : components) {
+            delta += component.weight * component.scoreLastSwap(key);
+        }
+        return delta;
+    }
+
+    /** Keeps the most recent swap scored by scoreLastSwap, updating the decoded nGrams it affected */
+    void acceptLastSwap() {
+        ++acceptedCount;
+        for (Component component : components) {
+            component.acceptLastSwap();
+        }
+    }
+
+    /** Returns the number of swaps scored so far */
+    long getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    /** Returns the number of scored swaps which were kept */
+    long getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    private final Component[] components;
+    private long evaluationCount = 0;
+    private long acceptedCount = 0;
+}
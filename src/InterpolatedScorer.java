@@ -0,0 +1,109 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Combines scorers of several nGram lengths, for example bigrams through quintgrams, into one score: the weighted sum
+ * of the score each gives the text.  Short nGrams give a smooth signal even on short or badly decoded texts, while
+ * long nGrams separate nearly correct answers from correct ones.
+ */
+public class InterpolatedScorer {
+    /**
+     * @param textScorers The scorers to combine
+     * @param interpolationWeights The weight of each scorer's score in the total
+     */
+    public InterpolatedScorer(List<TextScorer> textScorers, double[] interpolationWeights) {
+        if (textScorers.isEmpty() || textScorers.size() != interpolationWeights.length) {
+            throw new IllegalArgumentException();
+        }
+        scorers = textScorers.toArray(new TextScorer[0]);
+        weights = interpolationWeights.clone();
+    }
+
+    /**
+     * Creates a scorer combining the frequencies saved to several files
+     * @param fileNames Paths to frequency files, as read by TextScorer.fromFrequencyFile
+     * @param interpolationWeights The weight of each file's score in the total
+     */
+    public static InterpolatedScorer fromFrequencyFiles(List<String> fileNames, double[] interpolationWeights)
+            throws IOException, IllegalArgumentException {
+        List<TextScorer> textScorers = new ArrayList<>();
+        for (String fileName : fileNames) {
+            textScorers.add(TextScorer.fromFrequencyFile(fileName));
+        }
+        return new InterpolatedScorer(textScorers, interpolationWeights);
+    }
+
+    /**
+     * Ranks the resemblance of the input text to the source language of the scorers
+     * @param input Text to be ranked
+     * @return
+     */
+    public double score(String input) {
+        return score(TextScoreUtilities.toLetterIndices(input));
+    }
+
+    /**
+     * Ranks the resemblance of pre-filtered text to the source language of the scorers
+     * @param letters Letter indices (A is 0, Z is 25), as produced by TextScoreUtilities.toLetterIndices
+     * @return
+     */
+    public double score(byte[] letters) {
+        double score = 0.0;
+        for (int i = 0; i < scorers.length; ++i) {
+            score += weights[i] * scorers[i].score(letters);
+        }
+        return score;
+    }
+
+    /** Returns the number of scorers combined */
+    public int getScorerCount() {
+        return scorers.length;
+    }
+
+    /** Returns one of the combined scorers */
+    public TextScorer getScorer(int index) {
+        return scorers[index];
+    }
+
+    /** Returns the weight of one of the combined scorers */
+    public double getWeight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Builds the nGram histograms of a ciphertext needed by each scorer
+     * @param cipherText The ciphertext
+     * @return One model for each scorer, in the same order
+     */
+    CipherNGramModel[] compile(String cipherText) {
+        byte[] letters = TextScoreUtilities.toLetterIndices(cipherText);
+        CipherNGramModel[] models = new CipherNGramModel[scorers.length];
+        for (int i = 0; i < scorers.length; ++i) {
+            models[i] = CipherNGramModel.fromLetters(letters, scorers[i].getNGramLength());
+        }
+        return models;
+    }
+
+    /**
+     * Ranks a ciphertext decoded with a key, working from its nGram histograms
+     * @param models The models of the ciphertext, as built by compile
+     * @param key The key used to decode the ciphertext
+     * @return
+     */
+    double score(CipherNGramModel[] models, KeyedSubstitution key) {
+        double score = 0.0;
+        for (int i = 0; i < scorers.length; ++i) {
+            score += weights[i] * scorers[i].score(models[i], key);
+        }
+        return score;
+    }
+
+    /** Creates a scorer which evaluates swaps of a key against the models of a ciphertext built by compile */
+    IncrementalSwapScorer newSwapScorer(CipherNGramModel[] models) {
+        return new IncrementalSwapScorer(models, scorers, weights);
+    }
+
+    private final TextScorer[] scorers;
+    private final double[] weights;
+}
@@ -0,0 +1,76 @@
+/**
+ * A bounded map from key fingerprints to scores, shared by the restarts of a solve so that each can tell when it has
+ * arrived at an answer another has already found.  Entries are spread over independently locked stripes, so that
+ * restarts on different threads rarely contend, and each stripe is a direct-mapped table in which a new key evicts
+ * whichever key held its slot.
+ */
+class KeyScoreCache {
+    /**
+     * @param capacity The maximum number of keys held.  It is rounded up so that each stripe is a power of two.
+     */
+    KeyScoreCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException();
+        }
+        final int perStripe = (capacity + stripeCount - 1) / stripeCount;
+        final int slotsPerStripe = (perStripe == 1) ? 1 : Integer.highestOneBit(perStripe - 1) << 1;
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; ++i) {
+            stripes[i] = new Stripe(slotsPerStripe);
+        }
+    }
+
+    private static class Stripe {
+        Stripe(int slots) {
+            fingerprints = new long[slots];
+            scores = new double[slots];
+        }
+
+        final long[] fingerprints;
+        final double[] scores;
+    }
+
+    /**
+     * Looks up the score of a key
+     * @param fingerprint The key's fingerprint
+     * @return The score recorded for the key, or NaN if it isn't held
+     */
+    double get(long fingerprint) {
+        // A fingerprint of zero marks an empty slot, so it is never held
+        if (fingerprint == 0) {
+            return Double.NaN;
+        }
+        Stripe stripe = stripes[(int) (fingerprint & (stripeCount - 1))];
+        final int slot = (int) (fingerprint >>> stripeBits) & (stripe.fingerprints.length - 1);
+        synchronized (stripe) {
+            return (stripe.fingerprints[slot] == fingerprint) ? stripe.scores[slot] : Double.NaN;
+        }
+    }
+
+    /** Returns whether a key is held */
+    boolean contains(long fingerprint) {
+        return !Double.isNaN(get(fingerprint));
+    }
+
+    /**
+     * Records the score of a key, evicting any other key which shares its slot
+     * @param fingerprint The key's fingerprint
+     * @param score The key's score
+     */
+    void put(long fingerprint, double score) {
+        if (fingerprint == 0) {
+            return;
+        }
+        Stripe stripe = stripes[(int) (fingerprint & (stripeCount - 1))];
+        final int slot = (int) (fingerprint >>> stripeBits) & (stripe.fingerprints.length - 1);
+        synchronized (stripe) {
+            stripe.fingerprints[slot] = fingerprint;
+            stripe.scores[slot] = score;
+        }
+    }
+
+    private final Stripe[] stripes;
+
+    private static final int stripeBits = 4;
+    private static final int stripeCount = 1 << stripeBits;
+}
@@ -1,6 +1,7 @@
 import java.lang.IllegalArgumentException;
 import java.util.Arrays;
-import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Applies a key-based text substitution to a string.  For example, a key of DEFABCGHIJKLMNOPQRSTUVWXYZ applied
@@ -19,6 +20,20 @@ public class KeyedSubstitution {
         return ks;
     }
 
+    /**
+     * Generates a random key using a provided source of randomness, which the key keeps using for later shuffles and
+     * swaps.  Supplying a seeded source makes the key and every change to it reproducible.
+     * @param randomSource The source of randomness.  It is not shared safely between threads, so give each key its own
+     *                     (for example, by splitting a SplittableRandom).
+     * @return
+     */
+    public static KeyedSubstitution random(RandomGenerator randomSource) {
+        KeyedSubstitution ks = new KeyedSubstitution();
+        ks.rand = randomSource;
+        ks.shuffle();
+        return ks;
+    }
+
     /**
      * Generates a substitution object from a provided key
      * @param key The provided key.  It must be a complete alphabet (a permutation of ABCDEFGHIJKLMNOPQRSTUVWXYZ)
@@ -40,6 +55,7 @@ public class KeyedSubstitution {
         Arrays.sort(providedKey);
         if (Arrays.equals(ksKey, providedKey)) {
             ks.replacements = key.toCharArray();
+            ks.fingerprint = ks.computeFingerprint();
         } else {
             throw new IllegalArgumentException();
         }
@@ -47,6 +63,26 @@ public class KeyedSubstitution {
         return ks;
     }
 
+    /**
+     * Creates a copy of this key.  The copy shares this key's source of randomness, so the two shouldn't be shuffled
+     * or swapped from different threads.
+     */
+    public KeyedSubstitution copy() {
+        KeyedSubstitution ks = new KeyedSubstitution();
+        ks.copyFrom(this);
+        ks.rand = rand;
+        return ks;
+    }
+
+    /**
+     * Replaces this key with the contents of another, keeping this key's own source of randomness
+     * @param other The key to be copied
+     */
+    public void copyFrom(KeyedSubstitution other) {
+        System.arraycopy(other.replacements, 0, replacements, 0, replacements.length);
+        fingerprint = other.fingerprint;
+    }
+
     /** Randomly permutes the key */
     public void shuffle() {
         // Fisher-Yates Shuffle
@@ -71,6 +107,58 @@ public class KeyedSubstitution {
         swapCharAtIndices(lastSwappedIndices[0], lastSwappedIndices[1]);
     }
 
+    /**
+     * Returns one of the two key indices exchanged by the most recent random swap
+     * @param which 0 for the first index, 1 for the second
+     */
+    int lastSwappedIndex(int which) {
+        return lastSwappedIndices[which];
+    }
+
+    /**
+     * Returns the letter index (A is 0, Z is 25) that the key substitutes for a letter
+     * @param letter The letter index to be substituted
+     */
+    int replacementIndex(int letter) {
+        return replacements[letter] - 'A';
+    }
+
+    /**
+     * Decodes an nGram of pre-filtered text directly into its base-26 value, without building any text
+     * @param letters Letter indices (A is 0, Z is 25) containing the nGram
+     * @param offset The index of the first letter of the nGram
+     * @param length The length of the nGram
+     * @return The base-26 value of the substituted nGram
+     */
+    long decodeNGram(byte[] letters, int offset, int length) {
+        long index = 0;
+        for (int i = offset; i < offset + length; ++i) {
+            index = (index * 26) + (replacements[letters[i]] - 'A');
+        }
+        return index;
+    }
+
+    /**
+     * Returns a 64-bit hash of the key, maintained as the key changes so that it costs nothing to read.  Equal keys
+     * always have equal fingerprints; different keys collide with negligible probability.
+     */
+    long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns a fingerprint of the key which ignores some of its positions, so that keys differing only where it
+     * doesn't matter, such as at letters absent from a ciphertext, share a fingerprint
+     * @param ignoredIndices The key indices to be ignored
+     */
+    long fingerprintIgnoring(int[] ignoredIndices) {
+        long hash = fingerprint;
+        for (int i : ignoredIndices) {
+            hash ^= zobristKeys[i][replacements[i] - 'A'];
+        }
+        return hash;
+    }
+
     /** Returns the key that is currently used for encoding/decoding */
     public String getKey() {
         StringBuilder key = new StringBuilder();
@@ -88,6 +176,7 @@ public class KeyedSubstitution {
             newKey[index] = (char)((int)'A' + i);
         }
         replacements = newKey;
+        fingerprint = computeFingerprint();
     }
 
     /**
@@ -110,18 +199,60 @@ public class KeyedSubstitution {
         return sb.toString();
     }
 
+    /**
+     * Applies a substitution cipher to pre-filtered text without allocating
+     * @param cipherText Letter indices (A is 0, Z is 25) of the text to be encoded
+     * @param output Receives the letter indices of the encoded text.  Must be at least as long as cipherText.
+     */
+    public void applySubstitution(byte[] cipherText, byte[] output) {
+        for (int i = 0; i < cipherText.length; ++i) {
+            output[i] = (byte) (replacements[cipherText[i]] - 'A');
+        }
+    }
+
     /** Swaps two characters in the key */
     private void swapCharAtIndices(int i, int j) {
+        final int letterI = replacements[i] - 'A';
+        final int letterJ = replacements[j] - 'A';
+        fingerprint ^= zobristKeys[i][letterI] ^ zobristKeys[j][letterJ]
+                ^ zobristKeys[i][letterJ] ^ zobristKeys[j][letterI];
+
         // Swap
         final char tmp = replacements[i];
         replacements[i] = replacements[j];
         replacements[j] = tmp;
     }
 
+    /** Calculates the Zobrist hash of the key: the exclusive or of a random value for each position and letter */
+    private long computeFingerprint() {
+        long hash = 0;
+        for (int i = 0; i < replacements.length; ++i) {
+            hash ^= zobristKeys[i][replacements[i] - 'A'];
+        }
+        return hash;
+    }
+
     private char[] replacements = {
             'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M',
             'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z'
     };
-    private SecureRandom rand = new SecureRandom();
+    /** Randomness here only guides the search, so a fast generator is preferable to a cryptographic one */
+    private RandomGenerator rand = new SplittableRandom();
     private int[] lastSwappedIndices = {0, 0};
+    private long fingerprint = identityFingerprint;
+
+    /** A fixed random value for each letter at each position of a key, shared by every key so fingerprints agree */
+    private static final long[][] zobristKeys = new long[26][26];
+    private static final long identityFingerprint;
+    static {
+        SplittableRandom random = new SplittableRandom(0x5A0B215DL);
+        long hash = 0;
+        for (int i = 0; i < zobristKeys.length; ++i) {
+            for (int letter = 0; letter < zobristKeys[i].length; ++letter) {
+                zobristKeys[i][letter] = random.nextLong();
+            }
+            hash ^= zobristKeys[i][i];
+        }
+        identityFingerprint = hash;
+    }
 }
@@ -0,0 +1,27 @@
+import java.nio.DoubleBuffer;
+
+/**
+ * Reads the score of every possible nGram directly from a memory-mapped binary frequency file.  Loading costs
+ * almost nothing, and processes mapping the same file share its pages.
+ */
+class MappedNGramTable implements NGramTable {
+    /**
+     * @param nGramScores A view of the mapped file holding the score of every nGram, indexed by base-26 value
+     */
+    MappedNGramTable(DoubleBuffer nGramScores) {
+        scores = nGramScores;
+    }
+
+    public double score(long index) {
+        return scores.get((int) index);
+    }
+
+    /** Copies every score onto the heap */
+    double[] toArray() {
+        double[] copy = new double[scores.capacity()];
+        scores.get(0, copy);
+        return copy;
+    }
+
+    private final DoubleBuffer scores;
+}
@@ -0,0 +1,50 @@
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Reads the scores of observed nGrams directly from a memory-mapped binary frequency file holding a sorted array of
+ * base-26 values and an array of scores.  Lookups are a binary search of the mapped values, so a table of long
+ * nGrams takes no heap at all.
+ */
+class MappedSparseNGramTable implements NGramTable {
+    /**
+     * @param sortedIndices A view of the mapped file holding the base-26 value of each observed nGram, ascending
+     * @param nGramScores A view of the mapped file holding the score of each observed nGram
+     * @param floor The score given to nGrams that were never observed
+     */
+    MappedSparseNGramTable(LongBuffer sortedIndices, FloatBuffer nGramScores, double floor) {
+        indices = sortedIndices;
+        scores = nGramScores;
+        baselineFloor = floor;
+    }
+
+    public double score(long index) {
+        int low = 0;
+        int high = indices.limit() - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final long value = indices.get(middle);
+            if (value < index) {
+                low = middle + 1;
+            } else if (value > index) {
+                high = middle - 1;
+            } else {
+                return scores.get(middle);
+            }
+        }
+        return baselineFloor;
+    }
+
+    /** Copies the table onto the heap */
+    SparseNGramTable toHeap() {
+        long[] heapIndices = new long[indices.limit()];
+        float[] heapScores = new float[scores.limit()];
+        indices.get(0, heapIndices);
+        scores.get(0, heapScores);
+        return new SparseNGramTable(heapIndices, heapScores, baselineFloor);
+    }
+
+    private final LongBuffer indices;
+    private final FloatBuffer scores;
+    private final double baselineFloor;
+}
@@ -0,0 +1,8 @@
+/** Storage for the score of every nGram of a fixed length, addressed by the nGram's base-26 value */
+interface NGramTable {
+    /**
+     * Returns the score of a single nGram, or the baseline floor if the nGram was never observed
+     * @param index The base-26 value of the nGram, where A is 0 and Z is 25
+     */
+    double score(long index);
+}
@@ -0,0 +1,128 @@
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel tempering: several replicas of the search anneal side by side at fixed temperatures, running on separate
+ * cores.  Between rounds, neighbouring replicas exchange keys when that makes the overall arrangement more likely,
+ * so keys found exploring at high temperature drift down to be refined by the colder replicas.
+ */
+public class ParallelTemperingSearch implements SearchStrategy {
+    /** Creates a search with one replica per processor (at least four) over a default range of temperatures */
+    public ParallelTemperingSearch() {
+        this(Math.max(4, Runtime.getRuntime().availableProcessors()), defaultMinTemperature, defaultMaxTemperature,
+                defaultRoundLength);
+    }
+
+    /**
+     * @param replicaCount The number of replicas, with temperatures spaced geometrically between the extremes
+     * @param minTemperature The temperature of the coldest replica, per nGram of ciphertext
+     * @param maxTemperature The temperature of the hottest replica, per nGram of ciphertext
+     * @param stepsPerRound The number of key swaps each replica tries between exchanges
+     */
+    public ParallelTemperingSearch(int replicaCount, double minTemperature, double maxTemperature, int stepsPerRound) {
+        if (replicaCount < 2 || minTemperature <= 0.0 || maxTemperature < minTemperature || stepsPerRound < 1) {
+            throw new IllegalArgumentException();
+        }
+        temperatures = new double[replicaCount];
+        for (int i = 0; i < replicaCount; ++i) {
+            temperatures[i] = minTemperature
+                    * Math.pow(maxTemperature / minTemperature, (double) i / (replicaCount - 1));
+        }
+        roundLength = stepsPerRound;
+    }
+
+    /** One chain of the search, with its own key, scorer and source of randomness */
+    private static class Replica {
+        Replica(SearchContext context) {
+            random = context.getRandom().split();
+            key = context.newStartingKey(random);
+            swapScorer = context.newSwapScorer();
+            score = swapScorer.reset(key);
+            bestKey = key.copy();
+            bestScore = score;
+        }
+
+        /** Tries a round of swaps at a fixed temperature, keeping each according to the Metropolis criterion */
+        void anneal(double temperature, int steps) {
+            for (int step = 0; step < steps; ++step) {
+                key.swapRandomPair();
+                final double delta = swapScorer.scoreLastSwap(key);
+                if (delta > 0.0 || random.nextDouble() < Math.exp(delta / temperature)) {
+                    swapScorer.acceptLastSwap();
+                    score += delta;
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestKey.copyFrom(key);
+                    }
+                } else {
+                    key.undoLastRandomSwap();
+                }
+            }
+        }
+
+        final RandomGenerator random;
+        final KeyedSubstitution key;
+        final IncrementalSwapScorer swapScorer;
+        double score;
+        final KeyedSubstitution bestKey;
+        double bestScore;
+    }
+
+    @Override
+    public KeyedSubstitution search(SearchContext context) {
+        final int replicaCount = temperatures.length;
+        final long nGramCount = Math.max(1, context.getCipherModel().getTotalCount());
+        Replica[] replicas = new Replica[replicaCount];
+        for (int i = 0; i < replicaCount; ++i) {
+            replicas[i] = new Replica(context);
+        }
+
+        // The search ends once no replica has improved on the best key for the key improvement threshold's worth of
+        // steps in a row.  The starting keys stand as the best so far, so that a search stopped before its first round
+        // still has a key to return.
+        double bestScore = Double.NEGATIVE_INFINITY;
+        KeyedSubstitution bestKey = null;
+        for (Replica replica : replicas) {
+            if (bestKey == null || replica.bestScore > bestScore) {
+                bestScore = replica.bestScore;
+                bestKey = replica.bestKey.copy();
+            }
+        }
+        int stepsSinceImprovement = 0;
+        while (stepsSinceImprovement < context.getKeyImprovementThreshold() && !context.isStopRequested()) {
+            // replicas[i] is always the replica at temperatures[i]; each runs on its own core
+            IntStream.range(0, replicaCount).parallel().forEach(
+                    (int i) -> replicas[i].anneal(temperatures[i] * nGramCount, roundLength));
+
+            stepsSinceImprovement += roundLength;
+            for (Replica replica : replicas) {
+                if (replica.bestScore > bestScore) {
+                    bestScore = replica.bestScore;
+                    bestKey = replica.bestKey.copy();
+                    stepsSinceImprovement = 0;
+                }
+            }
+
+            // Offer each neighbouring pair the chance to exchange keys
+            for (int i = 0; i < replicaCount - 1; ++i) {
+                final double coldBeta = 1.0 / (temperatures[i] * nGramCount);
+                final double hotBeta = 1.0 / (temperatures[i + 1] * nGramCount);
+                final double exponent = (coldBeta - hotBeta) * (replicas[i + 1].score - replicas[i].score);
+                if (exponent >= 0.0 || context.getRandom().nextDouble() < Math.exp(exponent)) {
+                    Replica colder = replicas[i];
+                    replicas[i] = replicas[i + 1];
+                    replicas[i + 1] = colder;
+                }
+            }
+        }
+
+        return bestKey;
+    }
+
+    private final double[] temperatures;
+    private final int roundLength;
+
+    private static final double defaultMinTemperature = 0.005;
+    private static final double defaultMaxTemperature = 0.2;
+    private static final int defaultRoundLength = 500;
+}
@@ -0,0 +1,110 @@
+import java.util.List;
+
+/**
+ * Measures how far a quantized scorer's results stray from the exact scorer it was built from: the error of each
+ * nGram's score, and how often the two disagree about which of a pair of texts is more like the language.
+ */
+public class QuantizationReport {
+    private QuantizationReport(int bits, double maxNGramError, double meanNGramError, double maxTextError,
+                               int comparedPairs, int invertedPairs) {
+        this.bits = bits;
+        this.maxNGramError = maxNGramError;
+        this.meanNGramError = meanNGramError;
+        this.maxTextError = maxTextError;
+        this.comparedPairs = comparedPairs;
+        this.invertedPairs = invertedPairs;
+    }
+
+    /**
+     * Compares a quantized scorer against the exact scorer it was built from
+     * @param exact The exact scorer
+     * @param quantized The result of exact.quantized
+     * @param samples Texts to rank with both scorers.  Every pair of equal length is compared, since only texts of
+     *                equal length have comparable scores.
+     */
+    public static QuantizationReport compare(TextScorer exact, TextScorer quantized, List<String> samples) {
+        if (quantized.getQuantizationBits() == 0 || exact.getNGramLength() != quantized.getNGramLength()) {
+            throw new IllegalArgumentException();
+        }
+
+        final int nGramCount = (int) TextScoreUtilities.nGramIndexCount(exact.getNGramLength());
+        double maxNGramError = 0.0;
+        double totalNGramError = 0.0;
+        for (int i = 0; i < nGramCount; ++i) {
+            final double error = Math.abs(exact.nGramScore(i) - quantized.nGramScore(i));
+            maxNGramError = Math.max(maxNGramError, error);
+            totalNGramError += error;
+        }
+
+        byte[][] letters = new byte[samples.size()][];
+        double[] exactScores = new double[samples.size()];
+        double[] quantizedScores = new double[samples.size()];
+        double maxTextError = 0.0;
+        for (int i = 0; i < samples.size(); ++i) {
+            letters[i] = TextScoreUtilities.toLetterIndices(samples.get(i));
+            exactScores[i] = exact.score(letters[i]);
+            quantizedScores[i] = quantized.score(letters[i]);
+            maxTextError = Math.max(maxTextError, Math.abs(exactScores[i] - quantizedScores[i]));
+        }
+
+        // A pair is inverted when the exact scorer prefers one text and the quantized scorer doesn't
+        int comparedPairs = 0;
+        int invertedPairs = 0;
+        for (int i = 0; i < samples.size(); ++i) {
+            for (int j = i + 1; j < samples.size(); ++j) {
+                if (letters[i].length != letters[j].length || exactScores[i] == exactScores[j]) {
+                    continue;
+                }
+                ++comparedPairs;
+                if ((exactScores[i] > exactScores[j]) != (quantizedScores[i] > quantizedScores[j])) {
+                    ++invertedPairs;
+                }
+            }
+        }
+        return new QuantizationReport(quantized.getQuantizationBits(), maxNGramError, totalNGramError / nGramCount,
+                maxTextError, comparedPairs, invertedPairs);
+    }
+
+    /** Returns the width of each quantized nGram score in bits */
+    public int getBits() {
+        return bits;
+    }
+
+    /** Returns the largest difference between an nGram's exact and quantized scores */
+    public double getMaxNGramError() {
+        return maxNGramError;
+    }
+
+    /** Returns the mean difference between an nGram's exact and quantized scores */
+    public double getMeanNGramError() {
+        return meanNGramError;
+    }
+
+    /** Returns the largest difference between a sample text's exact and quantized scores */
+    public double getMaxTextError() {
+        return maxTextError;
+    }
+
+    /** Returns the number of pairs of sample texts, of equal length and unequal exact scores, which were ranked */
+    public int getComparedPairs() {
+        return comparedPairs;
+    }
+
+    /** Returns the number of compared pairs which the quantized scorer ranks differently from the exact one */
+    public int getInvertedPairs() {
+        return invertedPairs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d-bit: nGram error max %.6f mean %.6f, text error max %.6f, %d of %d pairs inverted",
+                bits, maxNGramError, meanNGramError, maxTextError, invertedPairs, comparedPairs);
+    }
+
+    private final int bits;
+    private final double maxNGramError;
+    private final double meanNGramError;
+    private final double maxTextError;
+    private final int comparedPairs;
+    private final int invertedPairs;
+}
@@ -0,0 +1,121 @@
+/**
+ * Stores the score of every possible nGram as a 16 or 8-bit fixed-point code, so that a quadgram table takes a
+ * quarter or an eighth of the space of doubles and stays resident in cache.  Each score is the table's offset plus
+ * its code times the table's scale, so a text's score can be accumulated as a sum of integer codes and converted
+ * once at the end.
+ */
+class QuantizedNGramTable implements NGramTable {
+    private QuantizedNGramTable(int codeBits, double codeOffset, double codeScale, short[] wide, byte[] narrow) {
+        bits = codeBits;
+        offset = codeOffset;
+        scale = codeScale;
+        wideCodes = wide;
+        narrowCodes = narrow;
+    }
+
+    /**
+     * Builds a table from the exact score of every nGram.  The lowest score, normally the baseline floor, is code 0
+     * and the highest is the largest code, with the range between divided evenly.
+     * @param scores The score of every nGram, indexed by base-26 value
+     * @param codeBits The width of each code: 16 or 8
+     */
+    static QuantizedNGramTable quantize(double[] scores, int codeBits) {
+        if (codeBits != 16 && codeBits != 8) {
+            throw new IllegalArgumentException();
+        }
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double score : scores) {
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+        }
+        final int maxCode = (1 << codeBits) - 1;
+        final double codeScale = (max > min) ? (max - min) / maxCode : 0.0;
+
+        short[] wide = (codeBits == 16) ? new short[scores.length] : null;
+        byte[] narrow = (codeBits == 8) ? new byte[scores.length] : null;
+        for (int i = 0; i < scores.length; ++i) {
+            final int code = (codeScale == 0.0) ? 0 : (int) Math.round((scores[i] - min) / codeScale);
+            if (wide != null) {
+                wide[i] = (short) code;
+            } else {
+                narrow[i] = (byte) code;
+            }
+        }
+        return new QuantizedNGramTable(codeBits, min, codeScale, wide, narrow);
+    }
+
+    public double score(long index) {
+        return offset + (code(index) * scale);
+    }
+
+    /** Returns the fixed-point code of a single nGram */
+    int code(long index) {
+        return (wideCodes != null) ? (wideCodes[(int) index] & 0xFFFF) : (narrowCodes[(int) index] & 0xFF);
+    }
+
+    /**
+     * Sums the codes of every nGram of a text, rolling the index forward as TextScorer does
+     * @param letters Letter indices (A is 0, Z is 25)
+     * @param start The index of the first letter
+     * @param length The number of letters, at least nGramLength
+     * @param nGramLength The length of each nGram
+     */
+    long sumCodes(byte[] letters, int start, int length, int nGramLength) {
+        final int end = start + length;
+        final int leadingPlace = (int) TextScoreUtilities.nGramIndexCount(nGramLength - 1);
+        int index = 0;
+        for (int i = start; i < start + nGramLength; ++i) {
+            index = (index * 26) + letters[i];
+        }
+
+        // The width is checked once, outside the loop, so that each loop reads one array type
+        long sum = 0;
+        if (wideCodes != null) {
+            sum += wideCodes[index] & 0xFFFF;
+            for (int i = start + nGramLength; i < end; ++i) {
+                index = ((index - (letters[i - nGramLength] * leadingPlace)) * 26) + letters[i];
+                sum += wideCodes[index] & 0xFFFF;
+            }
+        } else {
+            sum += narrowCodes[index] & 0xFF;
+            for (int i = start + nGramLength; i < end; ++i) {
+                index = ((index - (letters[i - nGramLength] * leadingPlace)) * 26) + letters[i];
+                sum += narrowCodes[index] & 0xFF;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Converts a sum of codes back to a score
+     * @param codeSum The sum of the codes of a number of nGrams
+     * @param nGramCount The number of nGrams summed
+     */
+    double toScore(long codeSum, long nGramCount) {
+        return (nGramCount * offset) + (codeSum * scale);
+    }
+
+    /** Returns the width of each code in bits */
+    int getBits() {
+        return bits;
+    }
+
+    /** Returns the score difference between adjacent codes, which bounds the error of each nGram to half of it */
+    double getScale() {
+        return scale;
+    }
+
+    /** Returns the number of nGrams in the table */
+    int size() {
+        return (wideCodes != null) ? wideCodes.length : narrowCodes.length;
+    }
+
+    private final int bits;
+    private final double offset;
+    private final double scale;
+    /** The codes of a 16-bit table, or null */
+    private final short[] wideCodes;
+    /** The codes of an 8-bit table, or null */
+    private final byte[] narrowCodes;
+}
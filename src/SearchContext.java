@@ -0,0 +1,244 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.random.RandomGenerator;
+
+/** Everything a search strategy needs for a single random restart of a ciphertext */
+public class SearchContext {
+    SearchContext(CipherNGramModel cipherModel, TextScorer textScorer, int keyThreshold,
+                  RandomGenerator.SplittableGenerator randomSource, BooleanSupplier solveFinished) {
+        this(cipherModel, textScorer, keyThreshold, randomSource, solveFinished, null, null, null);
+    }
+
+    /**
+     * Creates a context whose answers may be refined and ranked by a second, more expensive scorer, and which may
+     * share the answers it finds with the other restarts of the solve
+     * @param refinementScorer The scorer used once the search has converged, or null for none
+     * @param refinementModels The ciphertext models built by the refinement scorer
+     * @param answerCache The scores of answers found by the solve's restarts, or null for none
+     */
+    SearchContext(CipherNGramModel cipherModel, TextScorer textScorer, int keyThreshold,
+                  RandomGenerator.SplittableGenerator randomSource, BooleanSupplier solveFinished,
+                  InterpolatedScorer refinementScorer, CipherNGramModel[] refinementModels,
+                  KeyScoreCache answerCache) {
+        model = cipherModel;
+        scorer = textScorer;
+        keyImprovementThreshold = keyThreshold;
+        random = randomSource;
+        finished = solveFinished;
+        refinement = refinementScorer;
+        refinementCipherModels = refinementModels;
+        answers = answerCache;
+        searchModels = new CipherNGramModel[] {cipherModel};
+
+        // Letters absent from the ciphertext can be decoded as anything without changing the answer
+        int unusedCount = 0;
+        for (int[] nGrams : model.nGramsByLetter) {
+            unusedCount += (nGrams.length == 0) ? 1 : 0;
+        }
+        unusedLetters = new int[unusedCount];
+        for (int letter = 0, i = 0; letter < model.nGramsByLetter.length; ++letter) {
+            if (model.nGramsByLetter[letter].length == 0) {
+                unusedLetters[i++] = letter;
+            }
+        }
+    }
+
+    /**
+     * Returns the nGram histogram of the ciphertext being searched.  For progressive solves this is the histogram of a
+     * sample of the ciphertext rather than of all of it.
+     */
+    public CipherNGramModel getCipherModel() {
+        return searchModels[stage];
+    }
+
+    /** Returns the scorer ranking candidate keys */
+    public TextScorer getScorer() {
+        return scorer;
+    }
+
+    /** Returns the number of key swaps allowed without improvement before a search should consider itself finished */
+    public int getKeyImprovementThreshold() {
+        return keyImprovementThreshold;
+    }
+
+    /**
+     * Returns this restart's source of randomness.  Searches running work on several threads should split it rather
+     * than share it.
+     */
+    public RandomGenerator.SplittableGenerator getRandom() {
+        return random;
+    }
+
+    /**
+     * Returns whether the solve this restart belongs to has already finished, because it ran out of time, reached
+     * its target score or was stopped.  Searches should check this regularly and return their best key so far once
+     * it becomes true.
+     */
+    public boolean isStopRequested() {
+        return finished.getAsBoolean();
+    }
+
+    /**
+     * Generates a key to begin searching from, drawing on this restart's source of randomness.  This is a random key,
+     * unless the solve starts from a frequency analysis seed, in which case it is the seed with a few random swaps.
+     */
+    public KeyedSubstitution newStartingKey() {
+        return newStartingKey(random);
+    }
+
+    /**
+     * Generates a key to begin searching from, as newStartingKey does, for searches which run several chains at once
+     * @param source The chain's own source of randomness, split from this restart's, which the key keeps using
+     */
+    public KeyedSubstitution newStartingKey(RandomGenerator source) {
+        KeyedSubstitution key = KeyedSubstitution.random(source);
+        if (seedKey == null) {
+            key.shuffle();
+            return key;
+        }
+        key.copyFrom(seedKey);
+        for (int i = 0; i < seedSwaps; ++i) {
+            key.swapRandomPair();
+        }
+        return key;
+    }
+
+    /**
+     * Starts searches from a seed key rather than from random keys
+     * @param seed The seed key, which is copied rather than changed
+     * @param swaps The number of random swaps applied to the seed for each starting key
+     */
+    void setStartingKey(KeyedSubstitution seed, int swaps) {
+        seedKey = seed;
+        seedSwaps = swaps;
+    }
+
+    /**
+     * Searches samples of the ciphertext before the whole of it
+     * @param sampleModels The histograms of successively wider samples of the ciphertext, ending with the whole text
+     */
+    void setProgressiveModels(CipherNGramModel[] sampleModels) {
+        if (sampleModels[sampleModels.length - 1] != model) {
+            throw new IllegalArgumentException();
+        }
+        searchModels = sampleModels;
+        stage = 0;
+    }
+
+    /**
+     * Moves the search on to the next wider sample of the ciphertext, once the search of the current one has stopped
+     * improving
+     * @return A scorer which evaluates swaps against the wider sample, or null if the whole text is already searched
+     */
+    IncrementalSwapScorer newWiderSwapScorer() {
+        if (stage == searchModels.length - 1) {
+            return null;
+        }
+        ++stage;
+        return newSwapScorer();
+    }
+
+    /** Creates a scorer which evaluates swaps of a key against the ciphertext being searched */
+    IncrementalSwapScorer newSwapScorer() {
+        IncrementalSwapScorer swapScorer = new IncrementalSwapScorer(searchModels[stage], scorer);
+        synchronized (swapScorers) {
+            swapScorers.add(swapScorer);
+        }
+        return swapScorer;
+    }
+
+    /**
+     * Creates a scorer which evaluates swaps of a key with the refinement scorer
+     * @return The swap scorer, or null if this restart has no refinement scorer
+     */
+    IncrementalSwapScorer newRefinementSwapScorer() {
+        if (refinement == null) {
+            return null;
+        }
+        IncrementalSwapScorer swapScorer = refinement.newSwapScorer(refinementCipherModels);
+        synchronized (swapScorers) {
+            swapScorers.add(swapScorer);
+        }
+        return swapScorer;
+    }
+
+    /**
+     * Returns the score by which answers are ranked: the refinement scorer's, if any, or else the search's own.  The
+     * answer is shared with the solve's other restarts.
+     */
+    double scoreAnswer(KeyedSubstitution key) {
+        if (answers != null) {
+            final double cached = answers.get(key.fingerprintIgnoring(unusedLetters));
+            if (!Double.isNaN(cached)) {
+                return cached;
+            }
+        }
+
+        final double score = (refinement == null) ? scorer.score(model, key)
+                : refinement.score(refinementCipherModels, key);
+        if (answers != null) {
+            answers.put(key.fingerprintIgnoring(unusedLetters), score);
+        }
+        return score;
+    }
+
+    /**
+     * Returns whether another restart of the solve has already settled on a key, in which case a search which reaches
+     * it can stop, since it would only repeat the work that found it
+     */
+    boolean isKnownAnswer(KeyedSubstitution key) {
+        if (answers == null || !answers.contains(key.fingerprintIgnoring(unusedLetters))) {
+            return false;
+        }
+        reachedKnownAnswer = true;
+        return true;
+    }
+
+    /** Returns whether a search of this restart stopped on reaching another restart's answer */
+    boolean reachedKnownAnswer() {
+        return reachedKnownAnswer;
+    }
+
+    /** Returns the number of swaps scored by every swap scorer created for this restart */
+    long getEvaluationCount() {
+        long count = 0;
+        synchronized (swapScorers) {
+            for (IncrementalSwapScorer swapScorer : swapScorers) {
+                count += swapScorer.getEvaluationCount();
+            }
+        }
+        return count;
+    }
+
+    /** Returns the number of swaps kept by every swap scorer created for this restart */
+    long getAcceptedCount() {
+        long count = 0;
+        synchronized (swapScorers) {
+            for (IncrementalSwapScorer swapScorer : swapScorers) {
+                count += swapScorer.getAcceptedCount();
+            }
+        }
+        return count;
+    }
+
+    private final CipherNGramModel model;
+    private final TextScorer scorer;
+    private final int keyImprovementThreshold;
+    private final RandomGenerator.SplittableGenerator random;
+    private final BooleanSupplier finished;
+    private final InterpolatedScorer refinement;
+    private final CipherNGramModel[] refinementCipherModels;
+    private final KeyScoreCache answers;
+    /** Ciphertext letters which never appear, and so are ignored when comparing answers */
+    private final int[] unusedLetters;
+    private volatile boolean reachedKnownAnswer = false;
+    /** The histograms searched, from the narrowest sample to the whole ciphertext */
+    private CipherNGramModel[] searchModels;
+    /** The index of the histogram currently searched */
+    private int stage = 0;
+    /** The key searches start from, or null to start from random keys */
+    private KeyedSubstitution seedKey = null;
+    private int seedSwaps = 0;
+    private final List<IncrementalSwapScorer> swapScorers = new ArrayList<>();
+}
@@ -0,0 +1,12 @@
+/**
+ * A method of searching for the key to a ciphertext, run once for each random restart.  Restarts run concurrently,
+ * so implementations must not keep any state of their own between searches.
+ */
+public interface SearchStrategy {
+    /**
+     * Searches for the highest-scoring key that can be found from a single random restart
+     * @param context The ciphertext, scorer and source of randomness for this restart
+     * @return The best key found
+     */
+    KeyedSubstitution search(SearchContext context);
+}
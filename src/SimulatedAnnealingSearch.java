@@ -0,0 +1,58 @@
+/**
+ * Simulated annealing: swaps of the key that lower the score are sometimes kept, with a probability that shrinks as
+ * the search cools, which lets the search climb out of shallow local optima that would trap a greedy hill climb.
+ */
+public class SimulatedAnnealingSearch implements SearchStrategy {
+    /** Creates a search cooling exponentially over a default number of steps */
+    public SimulatedAnnealingSearch() {
+        this(CoolingSchedule.exponential(defaultStartTemperature, defaultEndTemperature), defaultSteps);
+    }
+
+    /**
+     * @param coolingSchedule The temperature, per nGram of ciphertext, as the search progresses
+     * @param stepCount The number of key swaps tried by each search
+     */
+    public SimulatedAnnealingSearch(CoolingSchedule coolingSchedule, int stepCount) {
+        if (stepCount < 1) {
+            throw new IllegalArgumentException();
+        }
+        schedule = coolingSchedule;
+        steps = stepCount;
+    }
+
+    @Override
+    public KeyedSubstitution search(SearchContext context) {
+        KeyedSubstitution key = context.newStartingKey();
+        IncrementalSwapScorer swapScorer = context.newSwapScorer();
+        double score = swapScorer.reset(key);
+
+        KeyedSubstitution bestKey = key.copy();
+        double bestScore = score;
+        final long nGramCount = Math.max(1, context.getCipherModel().getTotalCount());
+        for (int step = 0; step < steps && !context.isStopRequested(); ++step) {
+            final double temperature = schedule.temperature((double) step / steps) * nGramCount;
+            key.swapRandomPair();
+            final double delta = swapScorer.scoreLastSwap(key);
+            if (delta > 0.0
+                    || (temperature > 0.0 && context.getRandom().nextDouble() < Math.exp(delta / temperature))) {
+                swapScorer.acceptLastSwap();
+                score += delta;
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestKey.copyFrom(key);
+                }
+            } else {
+                key.undoLastRandomSwap();
+            }
+        }
+
+        return bestKey;
+    }
+
+    private final CoolingSchedule schedule;
+    private final int steps;
+
+    private static final double defaultStartTemperature = 0.2;
+    private static final double defaultEndTemperature = 0.002;
+    private static final int defaultSteps = 20000;
+}
@@ -0,0 +1,27 @@
+/** A candidate answer to a ciphertext: the plaintext, the key which produced it, and its score */
+public class SolveCandidate {
+    SolveCandidate(String plainText, String key, double score) {
+        this.plainText = plainText;
+        this.key = key;
+        this.score = score;
+    }
+
+    /** Returns the ciphertext decoded with the candidate key */
+    public String getPlainText() {
+        return plainText;
+    }
+
+    /** Returns the key which decodes the ciphertext into the plaintext */
+    public String getKey() {
+        return key;
+    }
+
+    /** Returns the score of the plaintext.  Higher scores more closely resemble the source language. */
+    public double getScore() {
+        return score;
+    }
+
+    private final String plainText;
+    private final String key;
+    private final double score;
+}
@@ -0,0 +1,58 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+/** Follows the progress of a solve started by SubstitutionCipherSolver.StartSolve, and stops it early if needed */
+public class SolveHandle {
+    SolveHandle(CompletableFuture<SolveCandidate> solveResult, Supplier<SolveCandidate> bestCandidate,
+                Supplier<SolverStats> solveStats, Flow.Publisher<SolveCandidate> improvementPublisher,
+                Runnable stopSolve) {
+        result = solveResult;
+        best = bestCandidate;
+        stats = solveStats;
+        publisher = improvementPublisher;
+        stop = stopSolve;
+    }
+
+    /**
+     * Returns a future which completes with the best answer once the solve finishes, whether because it stopped
+     * improving, reached its target score, ran out of time or was stopped.  If restarts failed and none succeeded, it
+     * completes exceptionally with the first failure.
+     */
+    public CompletableFuture<SolveCandidate> getResult() {
+        return result;
+    }
+
+    /** Returns the best answer found so far */
+    public SolveCandidate getBestCandidate() {
+        return best.get();
+    }
+
+    /**
+     * Returns the work done by the solve: restarts, key swaps evaluated and time taken.  Once the solve finishes the
+     * figures are final.
+     */
+    public SolverStats getStats() {
+        return stats.get();
+    }
+
+    /**
+     * Returns a publisher of each improvement to the best answer.  Subscribers only receive improvements found after
+     * they subscribe, and the publisher completes when the solve finishes.  Improvements are dropped for subscribers
+     * too slow to keep up, since only the latest matters.
+     */
+    public Flow.Publisher<SolveCandidate> getPublisher() {
+        return publisher;
+    }
+
+    /** Stops the solve as quickly as possible.  The result completes with the best answer found so far. */
+    public void stop() {
+        stop.run();
+    }
+
+    private final CompletableFuture<SolveCandidate> result;
+    private final Supplier<SolveCandidate> best;
+    private final Supplier<SolverStats> stats;
+    private final Flow.Publisher<SolveCandidate> publisher;
+    private final Runnable stop;
+}
@@ -0,0 +1,11 @@
+/**
+ * Receives each improvement to the best answer of a solve as soon as it is found.  Calls are made in order from the
+ * solver's worker threads, so implementations should return quickly.
+ */
+public interface SolveListener {
+    /**
+     * Called when a solve finds an answer scoring higher than any before it
+     * @param candidate The new best answer
+     */
+    void onImprovement(SolveCandidate candidate);
+}
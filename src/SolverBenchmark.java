@@ -0,0 +1,243 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Measures how often and how quickly the solver recovers ciphertexts of different lengths under several solver
+ * configurations, so that the improvement thresholds can be tuned from data.  Frequency tables are built from most
+ * of a corpus, and plaintexts are drawn from the paragraphs held back from it, then encrypted with random keys.
+ * Results are printed as CSV, one row per configuration and plaintext length.
+ *
+ * Usage: java SolverBenchmark [corpus file] [nGram length] [samples per length] [seeded]
+ * The nGram length is used by the configurations which don't name their own.  Solves run unseeded, as they do in
+ * service, unless "seeded" is given.  Seeded solves are repeatable, but they bypass the answer cache and consider
+ * restarts in the order they started, which leaves workers idle, so their times don't reflect unseeded solves.
+ */
+public class SolverBenchmark {
+    public static void main(String[] args) throws IOException {
+        final String corpusFile = (args.length > 0) ? args[0] : defaultCorpusFile;
+        final int nGramLength = (args.length > 1) ? Integer.parseInt(args[1]) : defaultNGramLength;
+        final int samples = (args.length > 2) ? Integer.parseInt(args[2]) : defaultSamples;
+        final boolean seeded = (args.length > 3) && args[3].equals("seeded");
+
+        // Every fifth paragraph is held back, so that plaintexts are never part of the scorer's own statistics
+        String[] paragraphs = Files.readString(Paths.get(corpusFile), StandardCharsets.UTF_8).split("\\R\\s*\\R");
+        StringBuilder training = new StringBuilder();
+        StringBuilder heldOut = new StringBuilder();
+        for (int i = 0; i < paragraphs.length; ++i) {
+            (i % 5 == 4 ? heldOut : training).append(paragraphs[i]).append('\n');
+        }
+        final String plainTextSource = TextScoreUtilities.filterContent(heldOut.toString());
+
+        System.out.println("configuration,length,samples,successRate,meanAccuracy,medianMillis,p99Millis,"
+                + "evaluationsPerSecond,meanRestarts");
+        Map<Integer, TextScorer> scorers = new HashMap<>();
+        for (Configuration configuration : configurations) {
+            final int searchLength = (configuration.searchLength == 0) ? nGramLength : configuration.searchLength;
+            TextScorer scorer = scorer(scorers, training.toString(), searchLength);
+            try (SubstitutionCipherSolver solver = new SubstitutionCipherSolver(scorer)) {
+                solver.SetSearchStrategy(configuration.strategy.get());
+                solver.SetRandomImprovementThreshold(configuration.randomImprovementThreshold);
+                solver.SetKeyImprovementThreshold(configuration.keyImprovementThreshold);
+                if (configuration.perturbationSwaps > 0) {
+                    solver.SetFrequencySeeding(configuration.seedWithBigrams, configuration.perturbationSwaps);
+                }
+                if (configuration.refinementLengths.length > 0) {
+                    List<TextScorer> refinementScorers = new ArrayList<>();
+                    for (int length : configuration.refinementLengths) {
+                        refinementScorers.add(scorer(scorers, training.toString(), length));
+                    }
+                    solver.SetRefinementScorer(new InterpolatedScorer(refinementScorers,
+                            configuration.refinementWeights));
+                }
+                for (int length : lengths) {
+                    if (length <= plainTextSource.length()) {
+                        run(solver, configuration, plainTextSource, length, samples, seeded);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Returns the scorer for an nGram length, building its frequency table from the training text if needed */
+    private static TextScorer scorer(Map<Integer, TextScorer> scorers, String training, int nGramLength)
+            throws IOException {
+        TextScorer scorer = scorers.get(nGramLength);
+        if (scorer == null) {
+            TextScoreFrequencyGenerator generator = new TextScoreFrequencyGenerator(nGramLength);
+            generator.recordKnownMaterial(training);
+            File frequencyFile = File.createTempFile("benchmark_frequencies", ".txt");
+            frequencyFile.deleteOnExit();
+            generator.saveToFile(frequencyFile.getPath());
+            scorer = TextScorer.fromFrequencyFile(frequencyFile.getPath());
+            scorers.put(nGramLength, scorer);
+        }
+        return scorer;
+    }
+
+    /** A set of solver settings to be measured */
+    private static class Configuration {
+        Configuration(String configurationName, Supplier<SearchStrategy> searchStrategy, int randomThreshold,
+                      int keyThreshold) {
+            this(configurationName, searchStrategy, randomThreshold, keyThreshold, 0, new int[0], new double[0], false,
+                    0);
+        }
+
+        /**
+         * A configuration starting restarts from a frequency analysis seed
+         * @param useBigrams Whether the seed is refined by bigram frequencies
+         * @param seedSwaps The most random swaps made to the seed by each restart after the first
+         */
+        Configuration(String configurationName, Supplier<SearchStrategy> searchStrategy, int randomThreshold,
+                      int keyThreshold, boolean useBigrams, int seedSwaps) {
+            this(configurationName, searchStrategy, randomThreshold, keyThreshold, 0, new int[0], new double[0],
+                    useBigrams, seedSwaps);
+        }
+
+        /** A configuration searching with one nGram length and refining answers with an interpolation of others */
+        Configuration(String configurationName, Supplier<SearchStrategy> searchStrategy, int randomThreshold,
+                      int keyThreshold, int nGramLength, int[] interpolatedLengths, double[] interpolationWeights) {
+            this(configurationName, searchStrategy, randomThreshold, keyThreshold, nGramLength, interpolatedLengths,
+                    interpolationWeights, false, 0);
+        }
+
+        /**
+         * @param nGramLength The nGram length searched with, or 0 for the benchmark's default
+         * @param interpolatedLengths The nGram lengths of the refinement scorer, or none for no refinement
+         * @param interpolationWeights The weight of each refinement nGram length
+         * @param useBigrams Whether a frequency analysis seed is refined by bigram frequencies
+         * @param seedSwaps The most random swaps made to the seed by each restart, or 0 to start from random keys
+         */
+        private Configuration(String configurationName, Supplier<SearchStrategy> searchStrategy, int randomThreshold,
+                              int keyThreshold, int nGramLength, int[] interpolatedLengths,
+                              double[] interpolationWeights, boolean useBigrams, int seedSwaps) {
+            name = configurationName;
+            strategy = searchStrategy;
+            randomImprovementThreshold = randomThreshold;
+            keyImprovementThreshold = keyThreshold;
+            searchLength = nGramLength;
+            refinementLengths = interpolatedLengths;
+            refinementWeights = interpolationWeights;
+            seedWithBigrams = useBigrams;
+            perturbationSwaps = seedSwaps;
+        }
+
+        final String name;
+        final Supplier<SearchStrategy> strategy;
+        final int randomImprovementThreshold;
+        final int keyImprovementThreshold;
+        final int searchLength;
+        final int[] refinementLengths;
+        final double[] refinementWeights;
+        final boolean seedWithBigrams;
+        final int perturbationSwaps;
+    }
+
+    /**
+     * Solves a number of plaintexts of one length and prints a line of results
+     * @param solver The solver, already set up with the configuration
+     * @param configuration The configuration being measured
+     * @param source Filtered text to draw plaintexts from
+     * @param length The number of letters in each plaintext
+     * @param samples The number of plaintexts to solve
+     * @param seeded Whether each solve is seeded, so that its search is repeatable
+     */
+    private static void run(SubstitutionCipherSolver solver, Configuration configuration, String source, int length,
+                            int samples, boolean seeded) {
+        // The same seed for every configuration means each one is measured against the same plaintexts and keys
+        SplittableRandom random = new SplittableRandom(length);
+        int successes = 0;
+        double totalAccuracy = 0.0;
+        long totalEvaluations = 0;
+        long totalRestarts = 0;
+        long totalNanos = 0;
+        List<Long> solveNanos = new ArrayList<>();
+        for (int sample = 0; sample < samples; ++sample) {
+            final int start = random.nextInt(source.length() - length + 1);
+            final String plainText = source.substring(start, start + length);
+            KeyedSubstitution key = KeyedSubstitution.random(random.split());
+            key.shuffle();
+            final String cipherText = key.applySubstitution(plainText);
+
+            // The seed is drawn either way, so that seeded and unseeded runs solve the same ciphertexts
+            final long seed = random.nextLong();
+            if (seeded) {
+                solver.SetRandomSeed(seed);
+            }
+            SolveHandle handle = solver.StartSolve(cipherText, null, Double.POSITIVE_INFINITY, null);
+            final String answer = handle.getResult().join().getPlainText();
+            final SolverStats stats = handle.getStats();
+
+            final double accuracy = accuracy(plainText, answer);
+            totalAccuracy += accuracy;
+            if (accuracy >= successAccuracy) {
+                ++successes;
+            }
+            final long nanos = stats.getElapsedTime().toNanos();
+            solveNanos.add(nanos);
+            totalNanos += nanos;
+            totalEvaluations += stats.getEvaluationCount();
+            totalRestarts += stats.getRestartsCompleted();
+        }
+        solver.ClearRandomSeed();
+
+        Collections.sort(solveNanos);
+        System.out.printf("%s,%d,%d,%.3f,%.3f,%.1f,%.1f,%.0f,%.1f%n", configuration.name, length, samples,
+                (double) successes / samples, totalAccuracy / samples, percentile(solveNanos, 0.5) / 1e6,
+                percentile(solveNanos, 0.99) / 1e6, (totalNanos == 0) ? 0.0 : totalEvaluations * 1e9 / totalNanos,
+                (double) totalRestarts / samples);
+    }
+
+    /** Returns the fraction of letters of the answer which match the plaintext */
+    private static double accuracy(String plainText, String answer) {
+        int matches = 0;
+        for (int i = 0; i < plainText.length(); ++i) {
+            if (plainText.charAt(i) == answer.charAt(i)) {
+                ++matches;
+            }
+        }
+        return (double) matches / plainText.length();
+    }
+
+    /** Returns the nearest-rank percentile of sorted values */
+    private static long percentile(List<Long> sortedValues, double fraction) {
+        final int rank = (int) Math.ceil(fraction * sortedValues.size());
+        return sortedValues.get(Math.max(0, rank - 1));
+    }
+
+    /** The solver settings measured.  Edit this list to compare other settings. */
+    private static final List<Configuration> configurations = List.of(
+            new Configuration("hillClimb-r20-k1000", HillClimbSearch::new, 20, 1000),
+            new Configuration("hillClimb-r10-k1000", HillClimbSearch::new, 10, 1000),
+            new Configuration("hillClimb-r40-k1000", HillClimbSearch::new, 40, 1000),
+            new Configuration("hillClimb-r20-k500", HillClimbSearch::new, 20, 500),
+            new Configuration("hillClimb-r20-k2000", HillClimbSearch::new, 20, 2000),
+            new Configuration("annealing-r5", SimulatedAnnealingSearch::new, 5, 1000),
+            new Configuration("unigramSeed-s4-r20-k1000", HillClimbSearch::new, 20, 1000, false, 4),
+            new Configuration("bigramSeed-s4-r20-k1000", HillClimbSearch::new, 20, 1000, true, 4),
+            new Configuration("bigramSeed-s8-r20-k1000", HillClimbSearch::new, 20, 1000, true, 8),
+            new Configuration("quadgram-r20-k1000", HillClimbSearch::new, 20, 1000, 4, new int[0], new double[0]),
+            new Configuration("cascade-2-to-234-r20-k1000", HillClimbSearch::new, 20, 1000, 2,
+                    new int[] {2, 3, 4}, new double[] {0.2, 0.4, 0.4}),
+            new Configuration("cascade-3-to-34-r20-k1000", HillClimbSearch::new, 20, 1000, 3,
+                    new int[] {3, 4}, new double[] {0.5, 0.5}));
+
+    /** The number of letters in each plaintext */
+    private static final int[] lengths = {100, 200, 400, 800};
+
+    /** An answer counts as a success when at least this fraction of its letters are correct */
+    private static final double successAccuracy = 0.9;
+
+    private static final String defaultCorpusFile = "data/benchmark_corpus.txt";
+    private static final int defaultNGramLength = 3;
+    private static final int defaultSamples = 10;
+}
@@ -0,0 +1,30 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** Flight Recorder event marking an improvement to the best answer of a solve */
+@Name("textrank.SolverImprovement")
+@Label("Solver Improvement")
+@Category({"TextRank", "Solver"})
+@Description("A solve found an answer scoring higher than any before it")
+class SolverImprovementEvent extends jdk.jfr.Event {
+    @Label("Solve Id")
+    long solveId;
+
+    @Label("Restart")
+    @Description("The restart which found the answer")
+    int sequence;
+
+    @Label("Score")
+    double score;
+
+    @Label("Elapsed")
+    @Description("Time from the start of the solve until the answer was found")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    @Label("Restarts Completed")
+    int restartsCompleted;
+}
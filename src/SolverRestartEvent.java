@@ -0,0 +1,35 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight Recorder event covering one random restart of a solve, from the start of its search to its answer */
+@Name("textrank.SolverRestart")
+@Label("Solver Restart")
+@Category({"TextRank", "Solver"})
+@Description("A single random restart of a substitution cipher solve")
+class SolverRestartEvent extends jdk.jfr.Event {
+    @Label("Solve Id")
+    long solveId;
+
+    @Label("Restart")
+    @Description("The order in which the restart was started within its solve")
+    int sequence;
+
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Evaluations")
+    @Description("Key swaps scored by the restart")
+    long evaluations;
+
+    @Label("Accepted")
+    @Description("Scored key swaps which the search kept")
+    long accepted;
+
+    @Label("Score")
+    double score;
+
+    @Label("Failed")
+    boolean failed;
+}
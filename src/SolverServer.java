@@ -0,0 +1,340 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A long-running solver which answers requests over a local socket, so that the frequency table is loaded, the
+ * worker pool started and the JIT warmed once rather than by every job.  Clients connect over TCP on the loopback
+ * interface or over a Unix domain socket and send one request per line, receiving one response line per request in
+ * the order the requests were sent:
+ *
+ *     PING                          OK
+ *     SCORE text                    OK score
+ *     SOLVE milliseconds text       OK score key plaintext
+ *     RELOAD file                   OK
+ *
+ * A time limit of 0 solves until the search stops improving.  RELOAD replaces the scorer with one loaded from a
+ * frequency file on the server's machine; solves already running finish with the scorer they started with.  Since any
+ * client may send it, RELOAD is refused unless the server has been given a reload directory, and then only loads
+ * files inside it, with names resolved against it.  Failed
+ * requests receive ERROR and a message.  A client may send further requests before earlier ones are answered; every
+ * pending solve, from every connection, is started at once on the shared solver, which interleaves their restarts on
+ * its workers.  Each connection may have a limited number of requests unanswered, beyond which the server stops
+ * reading from it until responses have been sent, and requests longer than a limit are skipped and answered with
+ * ERROR.  When a connection ends, its pending solves are stopped.
+ *
+ * Usage: java SolverServer [frequency file] [port or socket path] [reload directory]
+ * Files ending in .bin are memory-mapped binary frequency files; others are text frequency files.
+ */
+public class SolverServer implements AutoCloseable {
+    /**
+     * Opens a server socket.  Requests aren't accepted until start is called.
+     * @param textSolver The solver which runs solve requests.  It is not closed with the server.
+     * @param textScorer The scorer which runs score requests
+     * @param address A loopback TCP address or a Unix domain socket path
+     */
+    public SolverServer(SubstitutionCipherSolver textSolver, TextScorer textScorer, SocketAddress address)
+            throws IOException {
+        solver = textSolver;
+        scorer = textScorer;
+        serverChannel = (address instanceof UnixDomainSocketAddress)
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open();
+        serverChannel.bind(address);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Usage: java SolverServer [frequency file] [port or socket path] [reload directory]");
+            return;
+        }
+        TextScorer scorer = load(args[0]);
+        SocketAddress address = args[1].matches("\\d+")
+                ? new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1]))
+                : UnixDomainSocketAddress.of(args[1]);
+        try (SubstitutionCipherSolver solver = new SubstitutionCipherSolver(scorer);
+             SolverServer server = new SolverServer(solver, scorer, address)) {
+            if (args.length == 3) {
+                server.setReloadDirectory(Paths.get(args[2]));
+            }
+            System.out.println("Listening on " + server.getLocalAddress());
+            server.run();
+        }
+    }
+
+    /** Loads a binary frequency file if its name ends in .bin, or a text frequency file otherwise */
+    private static TextScorer load(String fileName) throws IOException {
+        return fileName.endsWith(".bin") ? TextScorer.fromBinaryFile(fileName)
+                : TextScorer.fromFrequencyFile(fileName);
+    }
+
+    /**
+     * Allows RELOAD requests to load frequency files from a directory.  RELOAD is refused until this is called.
+     * @param directory The directory holding the files clients may load, or null to refuse RELOAD again
+     */
+    public void setReloadDirectory(Path directory) throws IOException {
+        reloadDirectory = (directory == null) ? null : directory.toRealPath();
+    }
+
+    /**
+     * Replaces the scorer used by subsequent requests, and by the solver's subsequent solves.  Requests already
+     * running finish with the scorer they started with.
+     * @param textScorer The new scorer
+     */
+    public void setScorer(TextScorer textScorer) {
+        scorer = textScorer;
+        solver.SetScorer(textScorer);
+    }
+
+    /** Returns the address the server is listening on, including the port chosen if port 0 was requested */
+    public SocketAddress getLocalAddress() throws IOException {
+        return serverChannel.getLocalAddress();
+    }
+
+    /** Accepts connections on a background thread until the server is closed */
+    public void start() {
+        connectionExecutor.execute(this::run);
+    }
+
+    /** Accepts connections on the calling thread until the server is closed */
+    public void run() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel connection = serverChannel.accept();
+                connections.add(connection);
+                connectionExecutor.execute(() -> serve(connection));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // A failed accept affects only the client which attempted it
+            }
+        }
+    }
+
+    /** Stops accepting connections and closes those open, which stops the solves they started */
+    @Override
+    public void close() throws IOException {
+        SocketAddress address = serverChannel.getLocalAddress();
+        serverChannel.close();
+        for (SocketChannel connection : connections) {
+            connection.close();
+        }
+        connectionExecutor.shutdownNow();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    /**
+     * Reads requests from a connection until the client closes it.  Each request is started as soon as it is read,
+     * and its response is written once it and every earlier response on the connection are ready.  Once reading
+     * ends, the connection's pending solves are stopped, so they answer promptly with the best key found so far.
+     */
+    private void serve(SocketChannel connection) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(connection),
+                StandardCharsets.UTF_8));
+        Set<SolveHandle> solves = ConcurrentHashMap.newKeySet();
+        Semaphore unanswered = new Semaphore(maxUnansweredRequests);
+        CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+        try {
+            while (true) {
+                CompletableFuture<String> response;
+                try {
+                    final String line = readRequest(reader);
+                    if (line == null) {
+                        break;
+                    }
+                    // Waiting here stops reading from the client, which holds it back once the socket's buffers fill
+                    unanswered.acquire();
+                    response = handle(line, solves);
+                } catch (RequestTooLongException e) {
+                    unanswered.acquire();
+                    response = error("Request too long");
+                }
+                written = written.thenCombineAsync(response, (ignored, line) -> {
+                    if (!write(connection, line)) {
+                        stopAll(solves);
+                    }
+                    unanswered.release();
+                    return null;
+                }, connectionExecutor);
+            }
+        } catch (IOException e) {
+            // The client disconnected; its pending responses are dropped when the connection closes
+        } catch (InterruptedException e) {
+            // The server is closing
+        }
+        stopAll(solves);
+        written.whenComplete((ignored, error) -> {
+            connections.remove(connection);
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // Nothing more can be sent to the client
+            }
+        });
+    }
+
+    /**
+     * Reads a request line, which ends with a line feed, optionally preceded by a carriage return
+     * @return The request, or null if the client has closed the connection
+     * @throws RequestTooLongException if the line is longer than maxRequestLength, once the rest of it is skipped
+     */
+    private static String readRequest(Reader reader) throws IOException {
+        StringBuilder request = new StringBuilder();
+        boolean tooLong = false;
+        int c;
+        while ((c = reader.read()) != '\n') {
+            if (c == -1) {
+                if (request.length() == 0) {
+                    return null;
+                }
+                break;
+            }
+            if (request.length() == maxRequestLength) {
+                tooLong = true;
+            } else {
+                request.append((char) c);
+            }
+        }
+        if (tooLong) {
+            throw new RequestTooLongException();
+        }
+        final int length = request.length();
+        return (length > 0 && request.charAt(length - 1) == '\r') ? request.substring(0, length - 1)
+                : request.toString();
+    }
+
+    /** Thrown when a client sends a request longer than the server accepts */
+    private static class RequestTooLongException extends IOException {
+    }
+
+    /** Stops every pending solve of a connection */
+    private static void stopAll(Set<SolveHandle> solves) {
+        for (SolveHandle solve : solves) {
+            solve.stop();
+        }
+    }
+
+    /**
+     * Writes a response line.  Responses are written to the channel directly, since a stream over a blocking channel
+     * would wait for the reader, which is waiting for the client.
+     * @return false if the client has disconnected
+     */
+    private static boolean write(SocketChannel connection, String response) {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(response + "\n");
+        try {
+            while (buffer.hasRemaining()) {
+                connection.write(buffer);
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts a single request
+     * @param request A request line
+     * @param solves The connection's pending solves, which a solve request joins until it finishes
+     * @return A future which completes with the response line
+     */
+    CompletableFuture<String> handle(String request, Set<SolveHandle> solves) {
+        final String[] parts = request.split(" ", 2);
+        try {
+            switch (parts[0]) {
+                case "PING":
+                    return CompletableFuture.completedFuture("OK");
+                case "SCORE":
+                    if (parts.length < 2) {
+                        return error("SCORE requires text");
+                    }
+                    return CompletableFuture.completedFuture("OK " + scorer.score(parts[1]));
+                case "SOLVE":
+                    final String[] arguments = (parts.length < 2) ? new String[0] : parts[1].split(" ", 2);
+                    if (arguments.length < 2) {
+                        return error("SOLVE requires a time limit and text");
+                    }
+                    final long millis = Long.parseLong(arguments[0]);
+                    if (millis < 0) {
+                        return error("Time limit must not be negative");
+                    }
+                    final Duration budget = (millis == 0) ? null : Duration.ofMillis(millis);
+                    SolveHandle solve = solver.StartSolve(arguments[1], budget, Double.POSITIVE_INFINITY, null);
+                    solves.add(solve);
+                    solve.getResult().whenComplete((answer, error) -> solves.remove(solve));
+                    return solve.getResult()
+                            .thenApply((SolveCandidate answer) ->
+                                    "OK " + answer.getScore() + " " + answer.getKey() + " " + answer.getPlainText())
+                            .exceptionally((Throwable t) -> "ERROR " + t);
+                case "RELOAD":
+                    if (parts.length < 2) {
+                        return error("RELOAD requires a file");
+                    }
+                    final Path directory = reloadDirectory;
+                    if (directory == null) {
+                        return error("RELOAD is disabled");
+                    }
+                    // Resolving links before comparing stops names like ../x or links out of the directory escaping it
+                    final Path file = directory.resolve(parts[1]).toRealPath();
+                    if (!file.startsWith(directory)) {
+                        return error("RELOAD file must be inside the reload directory");
+                    }
+                    setScorer(load(file.toString()));
+                    return CompletableFuture.completedFuture("OK");
+                default:
+                    return error("Unknown request " + parts[0]);
+            }
+        } catch (NumberFormatException e) {
+            return error("Invalid number");
+        } catch (IOException e) {
+            return error(e.toString());
+        } catch (RuntimeException e) {
+            return error(e.toString());
+        }
+    }
+
+    private static CompletableFuture<String> error(String message) {
+        return CompletableFuture.completedFuture("ERROR " + message);
+    }
+
+    private final SubstitutionCipherSolver solver;
+    /** Replaced by setScorer while requests are running */
+    private volatile TextScorer scorer;
+    /** The real path of the directory RELOAD may load from, or null if RELOAD is disabled */
+    private volatile Path reloadDirectory;
+    private final ServerSocketChannel serverChannel;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    /** Runs the accept loop, a reader for each connection and the writing of responses */
+    private final ExecutorService connectionExecutor = Executors.newCachedThreadPool((Runnable r) -> {
+        Thread thread = Executors.defaultThreadFactory().newThread(r);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The longest request line accepted, which bounds the ciphertext of a solve */
+    static final int maxRequestLength = 1 << 20;
+    /** The most requests a connection may have unanswered before the server stops reading from it */
+    static final int maxUnansweredRequests = 16;
+}
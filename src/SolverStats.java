@@ -0,0 +1,118 @@
+import java.time.Duration;
+import java.util.List;
+
+/** Measurements of the work done by a single solve */
+public class SolverStats {
+    SolverStats(int restartsLaunched, int restartsCompleted, int restartsFailed, int knownAnswerCount,
+                long evaluationCount, long acceptedCount, long elapsedNanos, List<Improvement> scorePath,
+                List<Throwable> failures) {
+        this.restartsLaunched = restartsLaunched;
+        this.restartsCompleted = restartsCompleted;
+        this.restartsFailed = restartsFailed;
+        this.knownAnswerCount = knownAnswerCount;
+        this.evaluationCount = evaluationCount;
+        this.acceptedCount = acceptedCount;
+        this.elapsedNanos = elapsedNanos;
+        this.scorePath = List.copyOf(scorePath);
+        this.failures = List.copyOf(failures);
+    }
+
+    /** A point at which the solve found a better answer */
+    public static class Improvement {
+        Improvement(long elapsedNanos, double score) {
+            this.elapsedNanos = elapsedNanos;
+            this.score = score;
+        }
+
+        /** Returns the time from the start of the solve until the answer was found */
+        public Duration getElapsedTime() {
+            return Duration.ofNanos(elapsedNanos);
+        }
+
+        /** Returns the score of the answer */
+        public double getScore() {
+            return score;
+        }
+
+        private final long elapsedNanos;
+        private final double score;
+    }
+
+    /** Returns the number of random restarts submitted to the executor */
+    public int getRestartsLaunched() {
+        return restartsLaunched;
+    }
+
+    /** Returns the number of random restarts which ran to completion and reported their answer */
+    public int getRestartsCompleted() {
+        return restartsCompleted;
+    }
+
+    /** Returns the number of random restarts which threw an exception.  The solve carries on with the others. */
+    public int getRestartsFailed() {
+        return restartsFailed;
+    }
+
+    /** Returns the exception thrown by each failed restart, in the order they were considered */
+    public List<Throwable> getFailures() {
+        return failures;
+    }
+
+    /** Returns the number of restarts which stopped early on reaching an answer an earlier restart had found */
+    public int getKnownAnswerCount() {
+        return knownAnswerCount;
+    }
+
+    /** Returns the number of key swaps scored by the completed restarts */
+    public long getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    /** Returns the number of scored key swaps which the searches kept */
+    public long getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    /** Returns the fraction of scored key swaps which the searches kept */
+    public double getAcceptanceRate() {
+        return (evaluationCount == 0) ? 0.0 : (double) acceptedCount / evaluationCount;
+    }
+
+    /** Returns the wall-clock time from the start of the solve until it finished, or until now if it is running */
+    public Duration getElapsedTime() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /** Returns the number of key swaps scored per second of wall-clock time */
+    public double getEvaluationsPerSecond() {
+        return (elapsedNanos == 0) ? 0.0 : evaluationCount * 1e9 / elapsedNanos;
+    }
+
+    /** Returns the time from the start of the solve until its best answer was found */
+    public Duration getTimeToBest() {
+        return scorePath.isEmpty() ? Duration.ZERO : scorePath.get(scorePath.size() - 1).getElapsedTime();
+    }
+
+    /** Returns each improvement to the best answer in the order they were found */
+    public List<Improvement> getScorePath() {
+        return scorePath;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("restarts %d/%d (%d failed, %d stopped at known answers), %d evaluations "
+                        + "(%.1f%% accepted), %.0f evaluations/s, best after %d ms of %d ms", restartsCompleted,
+                restartsLaunched, restartsFailed, knownAnswerCount, evaluationCount, getAcceptanceRate() * 100.0,
+                getEvaluationsPerSecond(), getTimeToBest().toMillis(), getElapsedTime().toMillis());
+    }
+
+    private final int restartsLaunched;
+    private final int restartsCompleted;
+    private final int restartsFailed;
+    private final int knownAnswerCount;
+    private final long evaluationCount;
+    private final long acceptedCount;
+    private final long elapsedNanos;
+    private final List<Improvement> scorePath;
+    private final List<Throwable> failures;
+}
@@ -1,5 +1,25 @@
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SolverTests {
     /** Set this to where your test data is stored */
@@ -11,7 +31,9 @@ public class SolverTests {
             TextScorer scorer = TextScorer.fromFrequencyFile(testDataLocation + "english_quadgrams.txt");
             scorerTests(scorer);
             keyedSubstitutionTests();
+            cipherModelTests(scorer);
             substitutionCipherTests(scorer);
+            serverTests(scorer);
         } catch (Exception ex) {
             System.out.println(ex.toString());
         }
@@ -21,6 +43,104 @@ public class SolverTests {
         TextScoreFrequencyGenerator generator = new TextScoreFrequencyGenerator(4);
         generator.recordKnownMaterial("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
         generator.saveToFile(testDataLocation + "test1.txt");
+        generator.saveToBinaryFile(testDataLocation + "test1.bin");
+
+        // Text and binary frequency files must produce identical scores
+        TextScorer textScorer = TextScorer.fromFrequencyFile(testDataLocation + "test1.txt");
+        TextScorer binaryScorer = TextScorer.fromBinaryFile(testDataLocation + "test1.bin");
+        for (String text : List.of("ABCDEFG", "HIJKLMNOP", "QWERTY")) {
+            if (textScorer.score(text) != binaryScorer.score(text)) {
+                throw new AssertionError();
+            }
+        }
+
+        // nGrams too long to store densely are saved in the sparse layout, which must also score identically
+        TextScoreFrequencyGenerator sparseGenerator = new TextScoreFrequencyGenerator(5);
+        sparseGenerator.recordKnownMaterial("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+        sparseGenerator.saveToFile(testDataLocation + "test5.txt");
+        sparseGenerator.saveToBinaryFile(testDataLocation + "test5.bin");
+        TextScorer sparseTextScorer = TextScorer.fromFrequencyFile(testDataLocation + "test5.txt");
+        TextScorer sparseBinaryScorer = TextScorer.fromBinaryFile(testDataLocation + "test5.bin");
+        for (String text : List.of("ABCDEFG", "HIJKLMNOP", "QWERTY", "UVWXYZ")) {
+            if (sparseTextScorer.score(text) != sparseBinaryScorer.score(text)) {
+                throw new AssertionError();
+            }
+        }
+        if (sparseTextScorer.score("ABCDE") <= sparseTextScorer.score("EDCBA")) {
+            throw new AssertionError();
+        }
+
+        // Every window of nGrams whose leading place value exceeds an int must be indexed, not just the first
+        final String pangram = "THEQUICKBROWNFOXJUMPSOVERTHELAZYDOG";
+        TextScoreFrequencyGenerator longGenerator = new TextScoreFrequencyGenerator(8);
+        longGenerator.recordKnownMaterial(pangram);
+        longGenerator.saveToFile(testDataLocation + "test8.txt");
+        longGenerator.saveToBinaryFile(testDataLocation + "test8.bin");
+        TextScorer longTextScorer = TextScorer.fromFrequencyFile(testDataLocation + "test8.txt");
+        TextScorer longBinaryScorer = TextScorer.fromBinaryFile(testDataLocation + "test8.bin");
+        final double observedScore = longTextScorer.score(pangram);
+        final double unobservedScore = longTextScorer.score("QWERTYUIOPASDFGHJKLZXCVBNMQWERTYUIO");
+        if (observedScore != longBinaryScorer.score(pangram)
+                || observedScore - unobservedScore < (pangram.length() - 8) * 0.5) {
+            throw new AssertionError();
+        }
+
+        // Merging saved counts must score exactly as counting all of their material in one generator does
+        TextScoreFrequencyGenerator first = new TextScoreFrequencyGenerator(3);
+        first.recordKnownMaterial("THE QUICK BROWN FOX");
+        first.saveToFile(testDataLocation + "test6.txt");
+        TextScoreFrequencyGenerator merged = new TextScoreFrequencyGenerator(3);
+        merged.recordFrequencyFile(testDataLocation + "test6.txt");
+        merged.recordKnownMaterial("JUMPS OVER THE LAZY DOG");
+        TextScoreFrequencyGenerator combined = new TextScoreFrequencyGenerator(3);
+        combined.recordKnownMaterial("THE QUICK BROWN FOX");
+        combined.recordKnownMaterial("JUMPS OVER THE LAZY DOG");
+        combined.saveToFile(testDataLocation + "test7.txt");
+        if (merged.toScorer().score("THELAZYFOX") != TextScorer.fromFrequencyFile(testDataLocation + "test7.txt")
+                .score("THELAZYFOX")) {
+            throw new AssertionError();
+        }
+
+        // Frequency files read into a generator must score as they do loaded directly, including decimal counts and
+        // nGrams outside A-Z, which count toward the total
+        Files.writeString(Paths.get(testDataLocation + "test9.txt"), "THE 4.0\nHEQ 2\nTH' 2\n");
+        TextScoreFrequencyGenerator reread = new TextScoreFrequencyGenerator(3);
+        reread.recordFrequencyFile(testDataLocation + "test9.txt");
+        if (reread.toScorer().score("THEQ") != TextScorer.fromFrequencyFile(testDataLocation + "test9.txt")
+                .score("THEQ")) {
+            throw new AssertionError();
+        }
+
+        // Streaming a corpus from disk must count exactly what recording it from memory does
+        final String corpus = "The quick brown fox jumps over the lazy dog.  Pack my box with five dozen liquor jugs.";
+        Files.writeString(Paths.get(testDataLocation + "corpus.txt"), corpus);
+        TextScoreFrequencyGenerator streamed = new TextScoreFrequencyGenerator(3);
+        streamed.recordCorpus(testDataLocation + "corpus.txt", 2);
+        streamed.saveToFile(testDataLocation + "test2.txt");
+        TextScoreFrequencyGenerator recorded = new TextScoreFrequencyGenerator(3);
+        recorded.recordKnownMaterial(corpus);
+        recorded.saveToFile(testDataLocation + "test3.txt");
+        if (TextScorer.fromFrequencyFile(testDataLocation + "test2.txt").score(corpus)
+                != TextScorer.fromFrequencyFile(testDataLocation + "test3.txt").score(corpus)) {
+            throw new AssertionError();
+        }
+
+        // Chunks of a few characters put most nGrams across a boundary, and each must still be counted exactly once,
+        // including where symbols, or a character needing two UTF-16 units, fall at the edge of a chunk
+        final String mixedCorpus = corpus + "  Caf\u00e9 \ud83d\ude00 cr\u00e8me, na\u00efve fa\u00e7ade; the end.";
+        Files.writeString(Paths.get(testDataLocation + "corpus.txt"), mixedCorpus);
+        TextScoreFrequencyGenerator whole = new TextScoreFrequencyGenerator(3);
+        whole.recordKnownMaterial(mixedCorpus);
+        whole.saveToFile(testDataLocation + "test3.txt");
+        final String wholeCounts = Files.readString(Paths.get(testDataLocation + "test3.txt"));
+        for (int chunkSize = 2; chunkSize <= 9; ++chunkSize) {
+            TextScoreFrequencyGenerator chunked = new TextScoreFrequencyGenerator(3);
+            chunked.recordCorpus(testDataLocation + "corpus.txt", 3, chunkSize);
+            chunked.saveToFile(testDataLocation + "test2.txt");
+            if (!Files.readString(Paths.get(testDataLocation + "test2.txt")).equals(wholeCounts)) {
+                throw new AssertionError();
+            }
+        }
     }
 
     public static void scorerTests(TextScorer scorer) {
@@ -31,6 +151,46 @@ public class SolverTests {
         if (scorer.score("THIS IS \"ALSO\" {ENGLISH}\nTEXT") < scorer.score("ASDFGHJKLZXCVBNMQWERT")) {
             throw new AssertionError();
         }
+
+        // Pre-encoded letters must score exactly as the equivalent string does
+        final String text = "This is \"also\" {English}\ntext";
+        byte[] letters = TextScoreUtilities.toLetterIndices(text);
+        if (scorer.score(text) != scorer.score(letters)) {
+            throw new AssertionError();
+        }
+        if (scorer.score("ALSOENGLISH") != scorer.score(letters, 6, 11)) {
+            throw new AssertionError();
+        }
+
+        // The vector summer must load whenever it was compiled in and the JVM has the Vector API, whatever the CPU's
+        // preferred vector size
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                && ClassLoader.getSystemResource("VectorDenseNGramSummer.class") != null
+                && !TextScorer.isVectorScoringAvailable()) {
+            throw new AssertionError();
+        }
+
+        // Vectorized scoring, when the Vector API is available, matches scalar scoring to within rounding
+        final String longText = "Longer samples of source material will enable more accurate decoding. ".repeat(20);
+        final double scalarScore = scorer.score(longText);
+        if (Math.abs(scorer.vectorized().score(longText) - scalarScore) > Math.abs(scalarScore) * 1e-12) {
+            throw new AssertionError();
+        }
+
+        // Quantized scores stray from exact ones by at most half a code per nGram, and keep the same rankings
+        for (int bits : new int[] {16, 8}) {
+            TextScorer quantized = scorer.quantized(bits);
+            // Each sample has 14 quadgrams
+            QuantizationReport report = QuantizationReport.compare(scorer, quantized,
+                    List.of("THISISENGLISHTEXT", "QWERTYUIOPASDFGHJ", "ENGLISHTEXTISTHIS"));
+            if (report.getMaxTextError() > report.getMaxNGramError() * 14
+                    || report.getInvertedPairs() != 0 || report.getComparedPairs() != 3) {
+                throw new AssertionError();
+            }
+            if (quantized.score("THISISENGLISHTEXT") < quantized.score("QWERTYUIOPASDFGHJ")) {
+                throw new AssertionError();
+            }
+        }
     }
 
     public static void keyedSubstitutionTests() throws IllegalArgumentException {
@@ -64,6 +224,26 @@ public class SolverTests {
             throw new AssertionError();
         }
 
+        // Keys drawn from identically seeded sources are identical
+        KeyedSubstitution seeded = KeyedSubstitution.random(new SplittableRandom(7));
+        if (!KeyedSubstitution.random(new SplittableRandom(7)).getKey().equals(seeded.getKey())) {
+            throw new AssertionError();
+        }
+
+        // Fingerprints follow the key through swaps, however it was reached
+        final long originalFingerprint = seeded.fingerprint();
+        for (int i = 0; i < 50; ++i) {
+            seeded.swapRandomPair();
+            if (seeded.fingerprint() != KeyedSubstitution.fromKey(seeded.getKey()).fingerprint()) {
+                throw new AssertionError();
+            }
+        }
+        seeded.shuffle();
+        seeded.copyFrom(KeyedSubstitution.random(new SplittableRandom(7)));
+        if (seeded.fingerprint() != originalFingerprint || ks.fingerprint() == originalFingerprint) {
+            throw new AssertionError();
+        }
+
         final String output = "BAKED APPLE PIE";
         final String expected = "EDKBC DPPLB PIB";
         if (!ks.applySubstitution(output).equals(expected)) {
@@ -71,6 +251,79 @@ public class SolverTests {
         }
     }
 
+    public static void cipherModelTests(TextScorer scorer) throws IOException {
+        // The running total of swap deltas must track a full rescore of the decoded text
+        final String cipherText = "The quick brown fox jumps over the lazy dog, then the dog sleeps";
+        byte[] cipherLetters = TextScoreUtilities.toLetterIndices(cipherText);
+        byte[] plainLetters = new byte[cipherLetters.length];
+        CipherNGramModel cipherModel = CipherNGramModel.fromLetters(cipherLetters, scorer.getNGramLength());
+        KeyedSubstitution ks = KeyedSubstitution.random();
+        IncrementalSwapScorer swapScorer = new IncrementalSwapScorer(cipherModel, scorer);
+        double score = swapScorer.reset(ks);
+        ks.applySubstitution(cipherLetters, plainLetters);
+        if (Math.abs(scorer.score(plainLetters) - scorer.score(cipherModel, ks)) > 1e-9) {
+            throw new AssertionError();
+        }
+
+        for (int i = 0; i < 100; ++i) {
+            ks.swapRandomPair();
+            final double delta = swapScorer.scoreLastSwap(ks);
+            ks.applySubstitution(cipherLetters, plainLetters);
+            if (Math.abs(scorer.score(plainLetters) - (score + delta)) > 1e-9) {
+                throw new AssertionError();
+            }
+
+            if ((i % 2) == 0) {
+                swapScorer.acceptLastSwap();
+                score += delta;
+            } else {
+                ks.undoLastRandomSwap();
+            }
+        }
+
+        // Swap deltas summed as quantized codes must track a full quantized rescore
+        TextScorer quantizedScorer = scorer.quantized(16);
+        IncrementalSwapScorer quantizedSwapScorer = new IncrementalSwapScorer(cipherModel, quantizedScorer);
+        double quantizedScore = quantizedSwapScorer.reset(ks);
+        if (Math.abs(quantizedScore - quantizedScorer.score(cipherModel, ks)) > 1e-9) {
+            throw new AssertionError();
+        }
+        for (int i = 0; i < 100; ++i) {
+            ks.swapRandomPair();
+            final double delta = quantizedSwapScorer.scoreLastSwap(ks);
+            if (Math.abs(quantizedScorer.score(cipherModel, ks) - (quantizedScore + delta)) > 1e-9) {
+                throw new AssertionError();
+            }
+
+            if ((i % 2) == 0) {
+                quantizedSwapScorer.acceptLastSwap();
+                quantizedScore += delta;
+            } else {
+                ks.undoLastRandomSwap();
+            }
+        }
+
+        // Swap deltas of an interpolated scorer must track its full rescore too
+        TextScoreFrequencyGenerator bigrams = new TextScoreFrequencyGenerator(2);
+        bigrams.recordKnownMaterial("The quick brown fox jumps over the lazy dog.  Pack my box with five dozen jugs.");
+        bigrams.saveToFile(testDataLocation + "test4.txt");
+        InterpolatedScorer interpolated = new InterpolatedScorer(List.of(
+                TextScorer.fromFrequencyFile(testDataLocation + "test4.txt"), scorer), new double[] {0.3, 0.7});
+        CipherNGramModel[] models = interpolated.compile(cipherText);
+        IncrementalSwapScorer interpolatedSwapScorer = interpolated.newSwapScorer(models);
+        score = interpolatedSwapScorer.reset(ks);
+        for (int i = 0; i < 100; ++i) {
+            ks.swapRandomPair();
+            score += interpolatedSwapScorer.scoreLastSwap(ks);
+            interpolatedSwapScorer.acceptLastSwap();
+            ks.applySubstitution(cipherLetters, plainLetters);
+            if (Math.abs(interpolated.score(plainLetters) - score) > 1e-9
+                    || Math.abs(interpolated.score(models, ks) - score) > 1e-9) {
+                throw new AssertionError();
+            }
+        }
+    }
+
     private static double similarity(String s1, String s2) {
         // If we wanted to get particularly fancy we could calculate edit distance here, but for test validation a
         // simple ratio of correct characters is sufficient
@@ -88,8 +341,164 @@ public class SolverTests {
         return (double)matchedCharacters / (double)totalCharacters;
     }
 
+    public static void serverTests(TextScorer scorer) throws IOException {
+        try (SubstitutionCipherSolver solver = new SubstitutionCipherSolver(scorer);
+             SolverServer server = new SolverServer(solver, scorer,
+                     new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            server.start();
+            try (Socket client = new Socket(InetAddress.getLoopbackAddress(),
+                    ((InetSocketAddress) server.getLocalAddress()).getPort())) {
+                Writer writer = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(),
+                        StandardCharsets.UTF_8));
+
+                // Requests sent together are answered in order, including a solve started before the score
+                final String plainText = "LONGER SAMPLES OF SOURCE MATERIAL WILL ENABLE MORE ACCURATE DECODING";
+                final String cipherText = KeyedSubstitution.fromKey("QWERTYUIOPASDFGHJKLZXCVBNM").applySubstitution(
+                        plainText);
+                writer.write("PING\nSOLVE 2000 " + cipherText + "\nSCORE " + plainText + "\nFROB\n");
+                writer.flush();
+                if (!reader.readLine().equals("OK")) {
+                    throw new AssertionError();
+                }
+                final String[] solved = reader.readLine().split(" ", 4);
+                if (!solved[0].equals("OK") || !solved[3].equals(
+                        KeyedSubstitution.fromKey(solved[2]).applySubstitution(cipherText))) {
+                    throw new AssertionError();
+                }
+                if (!reader.readLine().equals("OK " + scorer.score(plainText))) {
+                    throw new AssertionError();
+                }
+                if (!reader.readLine().startsWith("ERROR")) {
+                    throw new AssertionError();
+                }
+
+                // A request longer than the server accepts is skipped, and the connection carries on
+                writer.write("SCORE " + "A".repeat(SolverServer.maxRequestLength) + "\nPING\n");
+                writer.flush();
+                if (!reader.readLine().startsWith("ERROR") || !reader.readLine().equals("OK")) {
+                    throw new AssertionError();
+                }
+
+                // RELOAD is refused until a directory is allowed, and then only loads files inside it
+                writer.write("RELOAD " + testDataLocation + "test7.txt\n");
+                writer.flush();
+                if (!reader.readLine().startsWith("ERROR")) {
+                    throw new AssertionError();
+                }
+                final Path reloadDirectory = Files.createDirectories(Paths.get(testDataLocation + "reload"));
+                Files.copy(Paths.get(testDataLocation + "test7.txt"), reloadDirectory.resolve("test7.txt"),
+                        StandardCopyOption.REPLACE_EXISTING);
+                server.setReloadDirectory(reloadDirectory);
+                writer.write("RELOAD ../test7.txt\nRELOAD test7.txt\nSCORE THELAZYFOX\n");
+                writer.flush();
+                final double reloadedScore = TextScorer.fromFrequencyFile(testDataLocation + "test7.txt")
+                        .score("THELAZYFOX");
+                if (!reader.readLine().startsWith("ERROR") || !reader.readLine().equals("OK")
+                        || !reader.readLine().equals("OK " + reloadedScore)) {
+                    throw new AssertionError();
+                }
+            }
+        }
+    }
+
     public static void substitutionCipherTests(TextScorer scorer) {
-        SubstitutionCipherSolver solver = new SubstitutionCipherSolver(scorer);
+        try (SubstitutionCipherSolver solver = new SubstitutionCipherSolver(scorer)) {
+            substitutionCipherTests(solver);
+        }
+
+        // A frequency analysis seed should already decode far more of the text than a random key would, which on
+        // average decodes one letter in 26
+        final String plainText = TextScoreUtilities.filterContent("Longer samples of source material will enable "
+                + "more accurate decoding, since the frequencies of letters and of pairs of letters in a long text "
+                + "approach those of the language it was written in.");
+        final String cipherText = KeyedSubstitution.fromKey("QWERTYUIOPASDFGHJKLZXCVBNM").applySubstitution(plainText);
+        KeyedSubstitution seed = FrequencySeed.build(CipherNGramModel.fromCipherText(cipherText, 4), scorer, true);
+        if (similarity(plainText, seed.applySubstitution(cipherText)) < 0.1) {
+            throw new AssertionError();
+        }
+
+        // Every parallel tempering replica starts from the seed, so a single short round can't lose the correct key,
+        // which is the inverse of the encrypting key
+        KeyedSubstitution correctKey = KeyedSubstitution.fromKey("KXVMCNOPHQRSZYIJADLEGWBUFT");
+        SearchContext context = new SearchContext(CipherNGramModel.fromCipherText(cipherText, 4), scorer, 50,
+                new SplittableRandom(1), () -> false);
+        context.setStartingKey(correctKey, 0);
+        KeyedSubstitution tempered = new ParallelTemperingSearch(2, 0.005, 0.2, 50).search(context);
+        if (similarity(plainText, tempered.applySubstitution(cipherText)) < 0.95) {
+            throw new AssertionError();
+        }
+
+        // A restart whose solve has already stopped still returns its best starting key
+        SearchContext stoppedContext = new SearchContext(CipherNGramModel.fromCipherText(cipherText, 4), scorer, 50,
+                new SplittableRandom(1), () -> true);
+        if (new ParallelTemperingSearch(2, 0.005, 0.2, 50).search(stoppedContext) == null) {
+            throw new AssertionError();
+        }
+
+        // The answer cache holds one key per slot, so a key sharing another's stripe and slot evicts it, while keys
+        // elsewhere are kept
+        KeyScoreCache smallCache = new KeyScoreCache(16);
+        smallCache.put(1, -1.0);
+        smallCache.put(2, -2.0);
+        if (smallCache.get(1) != -1.0 || smallCache.get(2) != -2.0 || smallCache.contains(17)) {
+            throw new AssertionError();
+        }
+        smallCache.put(17, -17.0);
+        if (smallCache.contains(1) || smallCache.get(17) != -17.0 || smallCache.get(2) != -2.0) {
+            throw new AssertionError();
+        }
+
+        // An answer scored by one restart is served from the cache to the others, even those which would score it
+        // differently themselves
+        KeyScoreCache answers = new KeyScoreCache(1024);
+        SearchContext answering = new SearchContext(CipherNGramModel.fromCipherText(cipherText, 4), scorer, 50,
+                new SplittableRandom(1), () -> false, null, null, answers);
+        final double answerScore = answering.scoreAnswer(correctKey);
+        TextScoreFrequencyGenerator alphabet = new TextScoreFrequencyGenerator(4);
+        alphabet.recordKnownMaterial("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+        SearchContext repeating = new SearchContext(CipherNGramModel.fromCipherText(cipherText, 4),
+                alphabet.toScorer(), 50, new SplittableRandom(1), () -> false, null, null, answers);
+        if (repeating.scoreAnswer(correctKey) != answerScore) {
+            throw new AssertionError();
+        }
+
+        // A climb which reaches a known answer stops there, long before its improvement threshold runs out
+        SearchContext climbing = new SearchContext(CipherNGramModel.fromCipherText(cipherText, 4), scorer, 1000000,
+                new SplittableRandom(1), () -> false, null, null, answers);
+        KeyedSubstitution nearlyCorrect = KeyedSubstitution.fromKey("KXVMCNOPHQRSZYIJADLTGWBUFE");
+        IncrementalSwapScorer climbScorer = climbing.newSwapScorer();
+        climbScorer.reset(nearlyCorrect);
+        HillClimbSearch.climb(nearlyCorrect, climbScorer, climbing);
+        if (!climbing.reachedKnownAnswer() || !nearlyCorrect.applySubstitution(cipherText).equals(plainText)
+                || climbing.getEvaluationCount() >= 1000000) {
+            throw new AssertionError();
+        }
+
+        // A solve on a shared executor which is busy elsewhere still finishes at its deadline, since restarts that
+        // haven't started are cancelled
+        ExecutorService busyExecutor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        busyExecutor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try (SubstitutionCipherSolver sharedSolver = new SubstitutionCipherSolver(scorer, busyExecutor)) {
+            SolveCandidate answer = sharedSolver.StartSolve(cipherText, Duration.ofMillis(100),
+                    Double.POSITIVE_INFINITY, null).getResult().completeOnTimeout(null, 2, TimeUnit.SECONDS).join();
+            if (answer == null) {
+                throw new AssertionError();
+            }
+        } finally {
+            release.countDown();
+            busyExecutor.shutdown();
+        }
+    }
+
+    private static void substitutionCipherTests(SubstitutionCipherSolver solver) {
         String plainText = TextScoreUtilities.filterContent("This is a test of the substitution cipher solver function.  Longer samples of source material will enable more accurate decoding.");
         KeyedSubstitution ks = KeyedSubstitution.random();
         String cipherText = ks.applySubstitution(plainText);
@@ -99,5 +508,97 @@ public class SolverTests {
         if (similarity(plainText, answer) < 0.95) {
             throw new AssertionError();
         }
+
+        // Seeded solves follow the same search path, even when a short climb leaves the answer far from correct
+        solver.SetKeyImprovementThreshold(50);
+        solver.SetRandomSeed(42);
+        final String seededAnswer = solver.Solve(cipherText);
+        if (!solver.Solve(cipherText).equals(seededAnswer)) {
+            throw new AssertionError();
+        }
+        solver.ClearRandomSeed();
+        solver.SetKeyImprovementThreshold(1000);
+
+        // Annealing escapes the local optima that trap the hill climb, so it should do at least as well
+        solver.SetSearchStrategy(new SimulatedAnnealingSearch());
+        if (similarity(plainText, solver.Solve(cipherText)) < 0.95) {
+            throw new AssertionError();
+        }
+        // Parallel tempering swaps keys between temperatures for the same reason, and must find the answer too
+        solver.SetSearchStrategy(new ParallelTemperingSearch(4, 0.005, 0.2, 500));
+        if (similarity(plainText, solver.Solve(cipherText)) < 0.95) {
+            throw new AssertionError();
+        }
+        solver.SetSearchStrategy(new HillClimbSearch());
+
+        // Restarts from a frequency analysis seed should find the answer as reliably as random restarts
+        solver.SetFrequencySeeding(true, 4);
+        if (similarity(plainText, solver.Solve(cipherText)) < 0.95) {
+            throw new AssertionError();
+        }
+        solver.ClearFrequencySeeding();
+
+        // Progressive solves climb on a sample first, but must still find the answer to the whole text
+        solver.SetProgressiveEvaluation(40);
+        if (similarity(plainText, solver.Solve(cipherText)) < 0.95) {
+            throw new AssertionError();
+        }
+        solver.SetProgressiveEvaluation(0);
+
+        // Anytime solves publish strictly improving answers and finish with the last of them
+        List<SolveCandidate> improvements = new ArrayList<>();
+        SolveHandle handle = solver.StartSolve(cipherText, Duration.ofMillis(500), Double.POSITIVE_INFINITY,
+                (SolveCandidate candidate) -> improvements.add(candidate));
+        SolveCandidate best = handle.getResult().join();
+        for (int i = 1; i < improvements.size(); ++i) {
+            if (improvements.get(i).getScore() <= improvements.get(i - 1).getScore()) {
+                throw new AssertionError();
+            }
+        }
+        if (!improvements.isEmpty() && improvements.get(improvements.size() - 1) != best) {
+            throw new AssertionError();
+        }
+        if (!KeyedSubstitution.fromKey(best.getKey()).applySubstitution(cipherText).equals(best.getPlainText())) {
+            throw new AssertionError();
+        }
+
+        // Statistics follow the same improvements the listener saw
+        SolverStats stats = handle.getStats();
+        if (stats.getScorePath().size() != improvements.size() || stats.getRestartsCompleted() < 1
+                || stats.getEvaluationCount() < stats.getAcceptedCount() || stats.getAcceptedCount() < 1) {
+            throw new AssertionError();
+        }
+
+        // A failed restart is recorded and the others carry on; a solve whose every restart fails has no answer
+        AtomicInteger searches = new AtomicInteger();
+        HillClimbSearch climb = new HillClimbSearch();
+        solver.SetSearchStrategy((SearchContext context) -> {
+            if (searches.getAndIncrement() % 2 == 0) {
+                throw new IllegalStateException("failed restart");
+            }
+            return climb.search(context);
+        });
+        SolveHandle partlyFailing = solver.StartSolve(cipherText, null, Double.POSITIVE_INFINITY, null);
+        partlyFailing.getResult().join();
+        SolverStats failingStats = partlyFailing.getStats();
+        if (failingStats.getRestartsFailed() < 1 || failingStats.getRestartsCompleted() < 1
+                || failingStats.getFailures().size() != failingStats.getRestartsFailed()
+                || !failingStats.getFailures().get(0).getMessage().equals("failed restart")) {
+            throw new AssertionError();
+        }
+        solver.SetSearchStrategy((SearchContext context) -> {
+            throw new IllegalStateException("failed restart");
+        });
+        if (!solver.StartSolve(cipherText, null, Double.POSITIVE_INFINITY, null).getResult()
+                .handle((candidate, error) -> error != null).join()) {
+            throw new AssertionError();
+        }
+        solver.SetSearchStrategy(new HillClimbSearch());
+
+        // Batches return one answer per ciphertext, in order
+        List<String> answers = solver.SolveAll(List.of(cipherText, "", cipherText.substring(0, 40)));
+        if (answers.size() != 3 || !answers.get(1).isEmpty() || answers.get(2).length() != 40) {
+            throw new AssertionError();
+        }
     }
 }
@@ -0,0 +1,110 @@
+import java.util.Arrays;
+
+/**
+ * Stores the scores of observed nGrams only, as a sorted array of base-26 values alongside an array of scores, so
+ * that each nGram costs 12 bytes however long it is and the table holds no objects beyond its two arrays.  Lookups
+ * are a binary search.  Used for nGrams too long to store densely.
+ */
+class SparseNGramTable implements NGramTable {
+    /**
+     * @param sortedIndices The base-26 value of each observed nGram, in ascending order
+     * @param nGramScores The score of each observed nGram
+     * @param floor The score given to nGrams that were never observed
+     */
+    SparseNGramTable(long[] sortedIndices, float[] nGramScores, double floor) {
+        if (sortedIndices.length != nGramScores.length) {
+            throw new IllegalArgumentException();
+        }
+        indices = sortedIndices;
+        scores = nGramScores;
+        baselineFloor = floor;
+    }
+
+    /**
+     * Builds a table from observed nGrams in any order
+     * @param nGramIndices The base-26 value of each observed nGram.  Reordered in place.
+     * @param nGramScores The score of each observed nGram.  Reordered in place.
+     * @param count The number of observed nGrams, at the start of each array
+     * @param floor The score given to nGrams that were never observed
+     * @throws IllegalArgumentException if an nGram appears more than once
+     */
+    static SparseNGramTable fromUnsorted(long[] nGramIndices, double[] nGramScores, int count, double floor) {
+        sort(nGramIndices, nGramScores, 0, count - 1);
+        float[] scores = new float[count];
+        for (int i = 0; i < count; ++i) {
+            if (i > 0 && nGramIndices[i] == nGramIndices[i - 1]) {
+                throw new IllegalArgumentException();
+            }
+            scores[i] = (float) nGramScores[i];
+        }
+        return new SparseNGramTable(Arrays.copyOf(nGramIndices, count), scores, floor);
+    }
+
+    public double score(long index) {
+        final int i = Arrays.binarySearch(indices, index);
+        return (i >= 0) ? scores[i] : baselineFloor;
+    }
+
+    /** Returns the number of observed nGrams */
+    int size() {
+        return indices.length;
+    }
+
+    /** Returns the base-26 value of an observed nGram, in ascending order */
+    long indexAt(int i) {
+        return indices[i];
+    }
+
+    /** Returns the score of an observed nGram */
+    float scoreAt(int i) {
+        return scores[i];
+    }
+
+    /** Sorts parallel arrays of indices and scores by index, without boxing either */
+    private static void sort(long[] keys, double[] values, int low, int high) {
+        while (high - low > 16) {
+            final long pivot = keys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    ++i;
+                }
+                while (keys[j] > pivot) {
+                    --j;
+                }
+                if (i <= j) {
+                    swap(keys, values, i++, j--);
+                }
+            }
+
+            // Recurse into the smaller side so that the stack stays shallow
+            if (j - low < high - i) {
+                sort(keys, values, low, j);
+                low = i;
+            } else {
+                sort(keys, values, i, high);
+                high = j;
+            }
+        }
+
+        for (int i = low + 1; i <= high; ++i) {
+            for (int j = i; j > low && keys[j - 1] > keys[j]; --j) {
+                swap(keys, values, j - 1, j);
+            }
+        }
+    }
+
+    private static void swap(long[] keys, double[] values, int i, int j) {
+        final long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        final double value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    private final long[] indices;
+    private final float[] scores;
+    private final double baselineFloor;
+}
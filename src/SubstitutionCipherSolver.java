@@ -1,15 +1,76 @@
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class SubstitutionCipherSolver {
+public class SubstitutionCipherSolver implements AutoCloseable {
     /**
      * Solves substitution ciphers.  This finds a locally optimized solution, but because it relies on random start
-     * points, it is not guaranteed to find the optimal answer.
+     * points, it is not guaranteed to find the optimal answer.  The solver owns a thread pool, one thread per
+     * processor, which is reused by every solve until the solver is closed.
      * @param textScorer A scorer to rank the fitness of strings to the source language.
      */
     public SubstitutionCipherSolver(TextScorer textScorer) {
+        this(textScorer, Executors.newFixedThreadPool(defaultRestartsInFlight, daemonThreadFactory), true);
+    }
+
+    /**
+     * Solves substitution ciphers on a shared executor, which remains open when the solver is closed.  Blocking
+     * calls such as Solve must not be made from the executor's own threads.
+     * @param textScorer A scorer to rank the fitness of strings to the source language.
+     * @param sharedExecutor The executor which runs each random restart
+     */
+    public SubstitutionCipherSolver(TextScorer textScorer, ExecutorService sharedExecutor) {
+        this(textScorer, sharedExecutor, false);
+    }
+
+    private SubstitutionCipherSolver(TextScorer textScorer, ExecutorService solverExecutor, boolean ownedExecutor) {
+        scorer = textScorer;
+        executor = solverExecutor;
+        ownsExecutor = ownedExecutor;
+    }
+
+    /**
+     * Creates a solver which runs each random restart on its own virtual thread.  Virtual threads require Java 21;
+     * on earlier runtimes the solver falls back to its usual thread pool.
+     * @param textScorer A scorer to rank the fitness of strings to the source language.
+     */
+    public static SubstitutionCipherSolver withVirtualThreads(TextScorer textScorer) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new SubstitutionCipherSolver(textScorer, (ExecutorService) factory.invoke(null), true);
+        } catch (ReflectiveOperationException e) {
+            return new SubstitutionCipherSolver(textScorer);
+        }
+    }
+
+    /**
+     * Replaces the scorer used by subsequent solves, for example with one rebuilt from updated frequencies.  Each
+     * solve keeps the scorer it started with, so solves in progress are neither paused nor mixed between scorers.
+     * @param textScorer A scorer to rank the fitness of strings to the source language.
+     */
+    public void SetScorer(TextScorer textScorer) {
         scorer = textScorer;
     }
 
+    /**
+     * Sets the number of random restarts of each ciphertext that are queued or running at once
+     * @param count The number of restarts kept in flight
+     */
+    public void SetRestartsInFlight(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException();
+        }
+        restartsInFlight = count;
+    }
+
     /**
      * Sets the number of iterations that will proceed without random improvement
      * before determining that we have reached an optimum solution.
@@ -28,99 +89,588 @@ public class SubstitutionCipherSolver {
         keyImprovementThreshold = threshold;
     }
 
+    /**
+     * Sets how each random restart searches for a key.  The default is a greedy hill climb; simulated annealing and
+     * parallel tempering escape shallow local optima at the cost of more evaluations per restart.
+     * @param strategy The search to run from each random restart
+     */
+    public void SetSearchStrategy(SearchStrategy strategy) {
+        searchStrategy = strategy;
+    }
+
+    /**
+     * Refines each restart's answer with a second scorer, typically one combining several nGram lengths.  Restarts
+     * search with the solver's own scorer, which can then be a cheap low-order one; once a search converges, its key
+     * is climbed further with the refinement scorer, which also ranks the answers of different restarts.  Target
+     * scores are then measured by the refinement scorer.
+     * @param refinementScorer The scorer used to refine and rank answers, or null to use the solver's scorer alone
+     */
+    public void SetRefinementScorer(InterpolatedScorer refinementScorer) {
+        refinement = refinementScorer;
+    }
+
+    /**
+     * Sets how many answers each solve remembers.  Restarts often climb back to an answer an earlier restart already
+     * found; a hill climb which arrives at a remembered answer stops there, freeing its worker for a fresh restart.
+     * Seeded solves don't remember answers, since which restarts stop early would depend on timing.
+     * @param capacity The number of answers remembered per solve, or 0 to remember none
+     */
+    public void SetAnswerCacheSize(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        answerCacheSize = capacity;
+    }
+
+    /**
+     * Starts restarts from a key found by frequency analysis rather than from random keys.  Ciphertext letters are
+     * matched to the language letters of the same frequency rank, taken from the scorer's table, and optionally
+     * improved to match the language's bigram frequencies too.  The first restart of each solve climbs from this
+     * seed; each later one first makes between one and perturbationSwaps random swaps to it, so restarts explore
+     * the neighbourhood of the seed rather than the whole key space.
+     * @param useBigrams Whether to refine the seed by bigram frequencies, when the scorer's nGrams are long enough
+     * @param perturbationSwaps The most random swaps made to the seed by a restart after the first
+     */
+    public void SetFrequencySeeding(boolean useBigrams, int perturbationSwaps) {
+        if (perturbationSwaps < 1) {
+            throw new IllegalArgumentException();
+        }
+        seedWithBigrams = useBigrams;
+        seedPerturbationSwaps = perturbationSwaps;
+    }
+
+    /** Returns each subsequent solve to starting every restart from a random key */
+    public void ClearFrequencySeeding() {
+        seedPerturbationSwaps = 0;
+    }
+
+    /**
+     * Searches long ciphertexts progressively: each restart climbs on a sample of the ciphertext first, then on a
+     * sample four times wider each time the climb stops improving, until a wider sample no longer improves the key or
+     * the whole text has been climbed.  Answers are still ranked by their score on the whole text.  The cost of each
+     * swap then depends on the sample rather than the ciphertext, and climbs on wider samples start close to their
+     * answer.  Samples are drawn from evenly spaced blocks of the ciphertext.
+     * @param sampleLength The number of letters in the first sample, or 0 to always search the whole ciphertext
+     */
+    public void SetProgressiveEvaluation(int sampleLength) {
+        if (sampleLength < 0) {
+            throw new IllegalArgumentException();
+        }
+        progressiveSampleLength = sampleLength;
+    }
+
+    /**
+     * Seeds the random choices made by each solve, so that they can be reproduced.  Every restart draws from its own
+     * generator split from the seed, and results are considered in the order restarts were started rather than the
+     * order they finish, so with a fixed seed and number of restarts in flight a solve always follows the same search
+     * path and returns the same answer.
+     * @param seed The seed for each subsequent solve
+     */
+    public void SetRandomSeed(long seed) {
+        randomSeed = seed;
+    }
+
+    /** Returns each subsequent solve to unseeded random choices, with results considered as soon as they arrive */
+    public void ClearRandomSeed() {
+        randomSeed = null;
+    }
+
     /**
      * Find a (locally) optimum solution to a ciphertext encoded with a simple substitution cipher.
      * @param cipherText The ciphertext
      * @return The best plaintext candidate
      */
     public String Solve(String cipherText) {
-        PlainText bestCandidate = new PlainText();
-        bestCandidate.text = cipherText;
-        bestCandidate.score = scorer.score(cipherText);
-
-        final int threadPoolSize = Runtime.getRuntime().availableProcessors() + 1;
-        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(threadPoolSize);
-        CompletionService<PlainText> completionService = new ExecutorCompletionService<PlainText>(executor);
-
-        // We continue until we haven't seen an improvement in a while.  We don't have a fixed number of tasks to wait
-        // for, so fill the threadpool, then queue new tasks as we get results back until we're finished
-        for (int i = 0; i < threadPoolSize; ++i) {
-            completionService.submit(new Callable<PlainText>() {
-                @Override public PlainText call() throws Exception {
-                    return FindAnswer(cipherText, scorer, keyImprovementThreshold);
+        SolveTask task = new SolveTask(cipherText, null, Double.POSITIVE_INFINITY, null, false);
+        task.start();
+        try {
+            return task.result.get().getPlainText();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return task.finish().getPlainText();
+        } catch (ExecutionException e) {
+            // Every restart failed
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Starts solving a ciphertext on the solver's executor without waiting for the answer.  Restarts for every
+     * ciphertext in progress share the executor, so many ciphertexts can be solved at once without idle workers.
+     * @param cipherText The ciphertext
+     * @return A future which completes with the best plaintext candidate.  Cancelling it stops the search.
+     */
+    public CompletableFuture<String> SolveAsync(String cipherText) {
+        SolveTask task = new SolveTask(cipherText, null, Double.POSITIVE_INFINITY, null, false);
+        CompletableFuture<String> answer = task.result.thenApply(SolveCandidate::getPlainText);
+        answer.whenComplete((text, error) -> task.finish());
+        task.start();
+        return answer;
+    }
+
+    /**
+     * Starts an anytime solve of a ciphertext, which can be limited to a time budget or a target score.  Each
+     * improvement to the best answer is published as soon as its restart finishes, and the search can be stopped at
+     * any point in exchange for the best answer found so far.  When time runs out or the solve is stopped, running
+     * restarts return their best key promptly and are considered before the result completes.
+     * @param cipherText The ciphertext
+     * @param timeBudget The wall-clock time allowed for the solve, or null to run until it stops improving
+     * @param targetScore A score at which the answer is good enough to stop, or Double.POSITIVE_INFINITY for none
+     * @param listener Receives each improvement to the best answer, or null
+     * @return A handle for following and stopping the solve
+     */
+    public SolveHandle StartSolve(String cipherText, Duration timeBudget, double targetScore, SolveListener listener) {
+        SolveTask task = new SolveTask(cipherText, timeBudget, targetScore, listener, true);
+        SolveHandle handle = new SolveHandle(task.result, task::getBestCandidate, task::getStats, task.publisher,
+                task::requestStop);
+        task.start();
+        return handle;
+    }
+
+    /**
+     * Solves a batch of ciphertexts, interleaving their restarts on the solver's executor
+     * @param cipherTexts The ciphertexts
+     * @return The best plaintext candidate for each ciphertext, in the same order
+     */
+    public List<String> SolveAll(Collection<String> cipherTexts) {
+        List<CompletableFuture<String>> answers = new ArrayList<>();
+        for (String cipherText : cipherTexts) {
+            answers.add(SolveAsync(cipherText));
+        }
+
+        List<String> results = new ArrayList<>();
+        for (CompletableFuture<String> answer : answers) {
+            results.add(answer.join());
+        }
+        return results;
+    }
+
+    /** Stops the solver's executor if the solver created it.  Injected executors are left running. */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tracks the restarts of a single ciphertext.  We continue until we haven't seen an improvement in a while.  We
+     * don't have a fixed number of tasks to wait for, so keep a fixed number of restarts in flight, queueing a new
+     * one as each result comes back until we're finished.
+     */
+    private class SolveTask {
+        SolveTask(String text, Duration timeBudget, double target, SolveListener solveListener, boolean publishing) {
+            cipherText = text;
+            solveScorer = scorer;
+            final byte[] letters = TextScoreUtilities.toLetterIndices(cipherText);
+            cipherModel = CipherNGramModel.fromLetters(letters, solveScorer.getNGramLength());
+            progressiveModels = buildProgressiveModels(letters);
+            refinementScorer = refinement;
+            refinementModels = (refinementScorer == null) ? null : refinementScorer.compile(cipherText);
+            bestCandidate = new SolveCandidate(cipherText, identityKey,
+                    (refinementScorer == null) ? solveScorer.score(cipherText) : refinementScorer.score(cipherText));
+            budget = timeBudget;
+            targetScore = target;
+            listener = solveListener;
+            publisher = publishing ? new SubmissionPublisher<>() : null;
+            keyThreshold = keyImprovementThreshold;
+            restartThreshold = randomImprovementThreshold;
+            strategy = searchStrategy;
+            inOrder = (randomSeed != null);
+            randomSource = inOrder ? new SplittableRandom(randomSeed) : new SplittableRandom();
+            answerCache = (inOrder || answerCacheSize == 0) ? null : new KeyScoreCache(answerCacheSize);
+            perturbationSwaps = seedPerturbationSwaps;
+            seedKey = (perturbationSwaps == 0) ? null
+                    : FrequencySeed.build(cipherModel, solveScorer, seedWithBigrams);
+            startNanos = System.nanoTime();
+
+            // Cancelling the result stops the search
+            result.whenComplete((answer, error) -> finish());
+        }
+
+        synchronized void start() {
+            if (budget != null) {
+                deadline = deadlineTimer.schedule(this::requestStop, budget.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (bestCandidate.getScore() >= targetScore) {
+                finish();
+            }
+            for (int i = 0; i < restartsInFlight; ++i) {
+                submitRestart();
+            }
+        }
+
+        /**
+         * Asks running restarts to return their best key so far and starts no more.  Restarts still queued on the
+         * executor are cancelled, so that the search finishes once the running ones have been considered rather than
+         * waiting for a busy executor to reach the rest.
+         */
+        synchronized void requestStop() {
+            stopRequested = true;
+            for (Restart restart : new ArrayList<>(restarts)) {
+                if (restart.claim()) {
+                    // Cancelling calls back into onRestartDone, which drops the restart
+                    restart.cancel(false);
                 }
-            });
+            }
+            if (restarts.isEmpty()) {
+                finish();
+            }
         }
 
-        int iterationsSinceImprovement = 0;
-        try {
-            while (iterationsSinceImprovement < randomImprovementThreshold) {
-                ++iterationsSinceImprovement;
+        /**
+         * Ends the search immediately, returning the best answer found so far.  Restarts still running see the search
+         * has ended and return early; their results are discarded.
+         */
+        synchronized SolveCandidate finish() {
+            if (!finished) {
+                finished = true;
+                stopRequested = true;
+                finalStats = getStats();
+                if (deadline != null) {
+                    deadline.cancel(false);
+                }
+
+                // Restarts that haven't begun are dropped; cancelling them calls back into onRestartDone
+                List<Restart> abandoned = new ArrayList<>(restarts);
+                restarts.clear();
+                for (Restart restart : abandoned) {
+                    restart.cancel(false);
+                }
+                if (publisher != null) {
+                    publisher.close();
+                }
+
+                // A solve with failures and no successful restart has no answer to give
+                if (restartsCompleted == 0 && !failures.isEmpty()) {
+                    result.completeExceptionally(failures.get(0));
+                } else {
+                    result.complete(bestCandidate);
+                }
+            }
+            return bestCandidate;
+        }
+
+        synchronized SolveCandidate getBestCandidate() {
+            return bestCandidate;
+        }
+
+        /** Returns the work done by the solve, which stops counting once the solve finishes */
+        synchronized SolverStats getStats() {
+            if (finalStats != null) {
+                return finalStats;
+            }
+            return new SolverStats(restartsSubmitted, restartsCompleted, restartsFailed, knownAnswerCount,
+                    evaluationCount, acceptedCount, System.nanoTime() - startNanos, scorePath, failures);
+        }
+
+        /** A single random restart, with its own source of randomness */
+        private class Restart extends FutureTask<SolveCandidate> {
+            Restart(int restartSequence, SearchContext searchContext) {
+                super(() -> runRestart(restartSequence, searchContext));
+                sequence = restartSequence;
+                context = searchContext;
+            }
+
+            /** Runs the restart unless requestStop has already claimed it to be cancelled */
+            @Override public void run() {
+                if (claim()) {
+                    super.run();
+                }
+            }
+
+            /** Returns true for whichever of the executor and requestStop reaches the restart first */
+            boolean claim() {
+                return claimed.compareAndSet(false, true);
+            }
+
+            @Override protected void setException(Throwable t) {
+                failed = true;
+                super.setException(t);
+            }
+
+            @Override protected void done() {
+                onRestartDone(this);
+            }
+
+            final int sequence;
+            final SearchContext context;
+            /** Set before done is called if the search threw */
+            boolean failed = false;
+            private final AtomicBoolean claimed = new AtomicBoolean();
+        }
+
+        /** Runs the search of a single restart, recording it as a Flight Recorder event */
+        private SolveCandidate runRestart(int sequence, SearchContext context) {
+            SolverRestartEvent event = new SolverRestartEvent();
+            event.begin();
+            SolveCandidate answer = null;
+            try {
+                answer = FindAnswer(cipherText, context, strategy);
+                return answer;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.solveId = solveId;
+                    event.sequence = sequence;
+                    event.strategy = strategy.getClass().getSimpleName();
+                    event.evaluations = context.getEvaluationCount();
+                    event.accepted = context.getAcceptedCount();
+                    event.failed = (answer == null);
+                    event.score = (answer == null) ? Double.NaN : answer.getScore();
+                    event.commit();
+                }
+            }
+        }
+
+        /**
+         * Builds the histograms of successively wider samples of the ciphertext, ending with the whole ciphertext
+         * @return The histograms, or null if the solve isn't progressive or the ciphertext is no longer than a sample
+         */
+        private CipherNGramModel[] buildProgressiveModels(byte[] letters) {
+            if (progressiveSampleLength == 0 || letters.length <= progressiveSampleLength) {
+                return null;
+            }
+            List<CipherNGramModel> models = new ArrayList<>();
+            for (long length = progressiveSampleLength; length < letters.length; length *= progressiveWidening) {
+                models.add(CipherNGramModel.fromSample(letters, (int) length, solveScorer.getNGramLength()));
+            }
+            models.add(cipherModel);
+            return models.toArray(new CipherNGramModel[0]);
+        }
+
+        private synchronized void submitRestart() {
+            if (stopRequested) {
+                return;
+            }
+
+            // Splitting happens in submission order, which is deterministic when results are considered in order
+            SearchContext context = new SearchContext(cipherModel, solveScorer, keyThreshold, randomSource.split(),
+                    () -> stopRequested, refinementScorer, refinementModels, answerCache);
+            if (progressiveModels != null) {
+                context.setProgressiveModels(progressiveModels);
+            }
+            if (seedKey != null) {
+                context.setStartingKey(seedKey, (restartsSubmitted == 0) ? 0
+                        : 1 + context.getRandom().nextInt(perturbationSwaps));
+            }
+            Restart restart = new Restart(restartsSubmitted++, context);
+            restarts.add(restart);
+            try {
+                executor.execute(restart);
+            } catch (RejectedExecutionException e) {
+                // The executor has been shut down, so settle for the best answer so far
+                restarts.remove(restart);
+                finish();
+            }
+        }
+
+        private synchronized void onRestartDone(Restart restart) {
+            restarts.remove(restart);
+            if (restart.isCancelled()) {
+                return;
+            }
+            if (restart.failed) {
+                ++restartsFailed;
+            } else {
+                ++restartsCompleted;
+            }
+            evaluationCount += restart.context.getEvaluationCount();
+            acceptedCount += restart.context.getAcceptedCount();
+            if (restart.context.reachedKnownAnswer()) {
+                ++knownAnswerCount;
+            }
+            if (finished) {
+                return;
+            }
 
-                Future<PlainText> f = completionService.take();
-                PlainText answer = f.get();
+            if (!inOrder || stopRequested) {
+                considerRestart(restart);
+            } else {
+                // Hold results that arrive early until every restart started before them has been considered
+                completedRestarts.put(restart.sequence, restart);
+                Restart next;
+                while (!finished && (next = completedRestarts.remove(restartsConsidered)) != null) {
+                    considerRestart(next);
+                }
+            }
+
+            // A stopping search finishes once its last restart has reported back
+            if (stopRequested && restarts.isEmpty()) {
+                finish();
+            }
+        }
+
+        private void considerRestart(Restart restart) {
+            ++restartsConsidered;
+            try {
+                SolveCandidate answer = restart.get();
+                ++iterationsSinceImprovement;
 
                 // TODO: Keep a list of the top n answers instead of just the top 1
-                if (answer.score > bestCandidate.score) {
+                if (answer.getScore() > bestCandidate.getScore()) {
                     bestCandidate = answer;
                     iterationsSinceImprovement = 0;
+                    recordImprovement(restart.sequence);
+                    publishImprovement();
                 }
+            } catch (ExecutionException e) {
+                // A failed restart counts as one that didn't improve, so that a failing search can't run forever
+                failures.add(e.getCause());
+                ++iterationsSinceImprovement;
+            } catch (InterruptedException e) {
+                // The restart has already finished, so its result is available without waiting
+                throw new IllegalStateException(e);
+            }
 
-                // Queue a new random task to replace this one
-                completionService.submit(new Callable<PlainText>() {
-                    @Override public PlainText call() throws Exception {
-                        return FindAnswer(cipherText, scorer, keyImprovementThreshold);
-                    }
-                });
+            if (iterationsSinceImprovement >= restartThreshold || bestCandidate.getScore() >= targetScore) {
+                finish();
+                return;
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (ExecutionException e) {
-            System.err.println(e.toString());
+
+            // Queue a new random task to replace this one
+            submitRestart();
         }
 
-        // We don't need any more results
-        executor.shutdownNow();
+        private void recordImprovement(int sequence) {
+            final long elapsed = System.nanoTime() - startNanos;
+            scorePath.add(new SolverStats.Improvement(elapsed, bestCandidate.getScore()));
 
-        return bestCandidate.text;
-    }
+            SolverImprovementEvent event = new SolverImprovementEvent();
+            if (event.shouldCommit()) {
+                event.solveId = solveId;
+                event.sequence = sequence;
+                event.score = bestCandidate.getScore();
+                event.elapsed = elapsed;
+                event.restartsCompleted = restartsCompleted;
+                event.commit();
+            }
+        }
+
+        private void publishImprovement() {
+            if (listener != null) {
+                listener.onImprovement(bestCandidate);
+            }
+            if (publisher != null) {
+                // Slow subscribers miss intermediate answers rather than holding up the search
+                publisher.offer(bestCandidate, null);
+            }
+        }
 
-    private static class PlainText {
-        String text;
-        double score;
+        private final String cipherText;
+        /** The solver's scorer when the solve started */
+        private final TextScorer solveScorer;
+        private final CipherNGramModel cipherModel;
+        /** The histograms of wider and wider samples of the ciphertext, or null to search the whole text at once */
+        private final CipherNGramModel[] progressiveModels;
+        private final InterpolatedScorer refinementScorer;
+        private final CipherNGramModel[] refinementModels;
+        private final int keyThreshold;
+        private final int restartThreshold;
+        private final SearchStrategy strategy;
+        /** Whether results are considered in the order restarts were started, for reproducible seeded solves */
+        private final boolean inOrder;
+        private final SplittableRandom randomSource;
+        /** The frequency analysis key restarts start from, or null to start from random keys */
+        private final KeyedSubstitution seedKey;
+        private final int perturbationSwaps;
+        /** Answers found by this solve's restarts, or null if they aren't shared */
+        private final KeyScoreCache answerCache;
+        private final Duration budget;
+        private final double targetScore;
+        private final SolveListener listener;
+        final SubmissionPublisher<SolveCandidate> publisher;
+        final CompletableFuture<SolveCandidate> result = new CompletableFuture<>();
+        private ScheduledFuture<?> deadline;
+        private final List<Restart> restarts = new ArrayList<>();
+        private final Map<Integer, Restart> completedRestarts = new HashMap<>();
+        private int restartsSubmitted = 0;
+        private int restartsConsidered = 0;
+        private SolveCandidate bestCandidate;
+        private int iterationsSinceImprovement = 0;
+        /** Identifies the solve in Flight Recorder events */
+        private final long solveId = nextSolveId.incrementAndGet();
+        private int restartsCompleted = 0;
+        private int restartsFailed = 0;
+        private int knownAnswerCount = 0;
+        private long evaluationCount = 0;
+        private long acceptedCount = 0;
+        private final List<SolverStats.Improvement> scorePath = new ArrayList<>();
+        private final List<Throwable> failures = new ArrayList<>();
+        private final long startNanos;
+        private SolverStats finalStats;
+        private boolean finished = false;
+        /** Read by running restarts to see whether they should return early */
+        private volatile boolean stopRequested = false;
     }
 
-    /** Searches for a locally optimum solution starting at a key.  Returns the highest-scoring answer
+    /** Searches for a locally optimum solution from a single random restart.  Returns the highest-scoring answer
      * @param cipherText The ciphertext to be decoded
-     * @return The best plain text candidate and its score
-     */
-    private static PlainText FindAnswer(String cipherText, TextScorer scorer, int keyThreshold) {
-        KeyedSubstitution replacement = KeyedSubstitution.random();
-        replacement.shuffle();
-
-        PlainText bestCandidate = new PlainText();
-        bestCandidate.text = cipherText;
-        bestCandidate.score = scorer.score(cipherText);
-
-        int iterationsSinceImprovement = 0;
-        while (iterationsSinceImprovement < keyThreshold) {
-            replacement.swapRandomPair();
-            String plainText = replacement.applySubstitution(cipherText);
-            double score = scorer.score(plainText);
-            if (score > bestCandidate.score) {
-                bestCandidate.score = score;
-                bestCandidate.text = plainText;
-                iterationsSinceImprovement = 0;
-            } else {
-                replacement.undoLastRandomSwap();
-                ++iterationsSinceImprovement;
+     * @param context The ciphertext model, scorer and source of randomness for this restart
+     * @param strategy The search to run
+     * @return The best plain text candidate, its key and its score
+     */
+    private static SolveCandidate FindAnswer(String cipherText, SearchContext context, SearchStrategy strategy) {
+        KeyedSubstitution key = strategy.search(context);
+
+        // Progressive solves searched a sample of the ciphertext.  The key is climbed on wider samples until one no
+        // longer improves it, at which point the sample is large enough to rank keys as the whole text would.
+        IncrementalSwapScorer widerSwapScorer;
+        while ((widerSwapScorer = context.newWiderSwapScorer()) != null) {
+            widerSwapScorer.reset(key);
+            HillClimbSearch.climb(key, widerSwapScorer, context);
+            if (widerSwapScorer.getAcceptedCount() == 0) {
+                break;
             }
         }
 
-        return bestCandidate;
+        // With a refinement scorer, the converged key is polished by the more expensive scorer before it is ranked
+        IncrementalSwapScorer refinementSwapScorer = context.newRefinementSwapScorer();
+        if (refinementSwapScorer != null) {
+            refinementSwapScorer.reset(key);
+            HillClimbSearch.climb(key, refinementSwapScorer, context);
+        }
+
+        // Rescore the final answer in full so that accumulated rounding doesn't affect comparisons between restarts
+        final double score = context.scoreAnswer(key);
+        return new SolveCandidate(key.applySubstitution(cipherText), key.getKey(), score);
     }
 
-    private TextScorer scorer;
+    /** Read once by each solve, so that it can be replaced while solves are running */
+    private volatile TextScorer scorer;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private int restartsInFlight = defaultRestartsInFlight;
     private int randomImprovementThreshold = 20;
     private int keyImprovementThreshold = 1000;
+    private Long randomSeed = null;
+    private SearchStrategy searchStrategy = new HillClimbSearch();
+    private InterpolatedScorer refinement = null;
+    private int answerCacheSize = defaultAnswerCacheSize;
+    private boolean seedWithBigrams = false;
+    /** The most random swaps made to the frequency analysis seed by each restart, or 0 to start from random keys */
+    private int seedPerturbationSwaps = 0;
+    /** The number of letters in the first sample searched by progressive solves, or 0 to search the whole text */
+    private int progressiveSampleLength = 0;
+
+    private static final int defaultRestartsInFlight = Runtime.getRuntime().availableProcessors() + 1;
+    private static final int defaultAnswerCacheSize = 4096;
+    /** The factor by which each sample searched by a progressive solve is wider than the last */
+    private static final int progressiveWidening = 4;
+
+    /** Threads of the solver's own pool don't keep the JVM alive if the solver is never closed */
+    private static final ThreadFactory daemonThreadFactory = (Runnable r) -> {
+        Thread thread = Executors.defaultThreadFactory().newThread(r);
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    /** Ends solves which have run out of time */
+    private static final ScheduledExecutorService deadlineTimer =
+            Executors.newSingleThreadScheduledExecutor(daemonThreadFactory);
+
+    private static final AtomicLong nextSolveId = new AtomicLong();
+
+    /** The key which leaves text unchanged */
+    private static final String identityKey = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
 }
\ No newline at end of file
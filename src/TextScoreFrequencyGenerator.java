@@ -1,7 +1,26 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TextScoreFrequencyGenerator {
     /**
@@ -13,6 +32,9 @@ public class TextScoreFrequencyGenerator {
             throw new IllegalArgumentException();
         }
         nGramLength = length;
+        if (length <= TextScoreUtilities.maxDenseNGramLength) {
+            denseCounts = new long[(int) TextScoreUtilities.nGramIndexCount(length)];
+        }
     }
 
      /**
@@ -20,16 +42,105 @@ public class TextScoreFrequencyGenerator {
      * @param fileName Path to output file to store precomputed list of frequencies
      */
     public void saveToFile(String fileName) throws IOException {
-        try (FileWriter writer = new FileWriter(fileName)) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
+            if (denseCounts != null) {
+                for (int i = 0; i < denseCounts.length; ++i) {
+                    if (denseCounts[i] != 0) {
+                        writer.write(TextScoreUtilities.nGramFromIndex(i, nGramLength));
+                        writer.write(' ');
+                        writer.write(Long.toString(denseCounts[i]));
+                        writer.write('\n');
+                    }
+                }
+            }
+
             for (Map.Entry<String, Long> entry : frequencyCount.entrySet()) {
-                StringBuilder sb = new StringBuilder();
-                sb.append(entry.getKey());
-                sb.append(' ');
-                sb.append(entry.getValue());
-                sb.append('\n');
-                writer.write(sb.toString());
+                writer.write(entry.getKey());
+                writer.write(' ');
+                writer.write(entry.getValue().toString());
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Saves the current frequencies, already normalized, to a binary file that TextScorer.fromBinaryFile can
+     * memory-map
+     * @param fileName Path to output file
+     */
+    public void saveToBinaryFile(String fileName) throws IOException {
+        if (denseCounts == null) {
+            TextScorer.fromSparseCounts(frequencyCount, nGramLength).saveToBinaryFile(fileName);
+        } else {
+            TextScorer.fromDenseCounts(denseCounts, unindexedCount(), nGramLength).saveToBinaryFile(fileName);
+        }
+    }
+
+    /**
+     * Builds a scorer from the current frequencies, normalized by the current total.  Solvers can switch to it with
+     * SetScorer without reloading anything from disk.
+     */
+    public TextScorer toScorer() {
+        if (denseCounts == null) {
+            return TextScorer.fromSparseCounts(frequencyCount, nGramLength);
+        }
+        return TextScorer.fromDenseCounts(denseCounts, unindexedCount(), nGramLength);
+    }
+
+    /**
+     * Returns the number of recorded nGrams kept outside the dense counts, such as those read from a frequency file
+     * with characters outside A-Z.  They can never match, but count toward the total as fromFrequencyFile counts them.
+     */
+    private long unindexedCount() {
+        long count = 0;
+        for (long nGramCount : frequencyCount.values()) {
+            count += nGramCount;
+        }
+        return count;
+    }
+
+    /**
+     * Adds the counts saved to a frequency file, as written by saveToFile, to the current counts.  Several files can
+     * be merged into one this way, or new material recorded on top of an existing model, without recounting the
+     * corpora they came from.  The file is read a line at a time.  Counts with a fractional part, which
+     * fromFrequencyFile accepts, are rounded to the nearest whole count.
+     * @param fileName Path to a frequency file with nGrams of this generator's length
+     */
+    public void recordFrequencyFile(String fileName) throws IOException, IllegalArgumentException {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] components = line.split(" ");
+                if (components.length != 2 || components[0].length() != nGramLength) {
+                    throw new IllegalArgumentException();
+                }
+                final long count = Math.round(Double.parseDouble(components[1]));
+
+                // nGrams outside of A-Z have no dense index, but are kept so that they still count toward the total
+                final long index = TextScoreUtilities.nGramIndex(components[0]);
+                if (denseCounts != null && index >= 0) {
+                    denseCounts[(int) index] += count;
+                } else {
+                    frequencyCount.merge(components[0], count, Long::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the counts recorded by another generator to the current counts
+     * @param other A generator with the same nGram length
+     */
+    public void merge(TextScoreFrequencyGenerator other) {
+        if (other.nGramLength != nGramLength) {
+            throw new IllegalArgumentException();
+        }
+        if (denseCounts != null) {
+            for (int i = 0; i < denseCounts.length; ++i) {
+                denseCounts[i] += other.denseCounts[i];
             }
         }
+        other.frequencyCount.forEach((nGram, count) -> frequencyCount.merge(nGram, count, Long::sum));
     }
 
     /**
@@ -38,19 +149,256 @@ public class TextScoreFrequencyGenerator {
      * @param input Known valid input text
      */
     public void recordKnownMaterial(String input) {
-        TextScoreUtilities.forEachNGram(input, nGramLength,
-            (String nGram) -> {
-                Long currentCount = frequencyCount.get(nGram);
-                if (currentCount == null) {
-                    frequencyCount.put(nGram, 1L);
-                } else {
-                    frequencyCount.put(nGram, currentCount + 1L);
+        byte[] letters = TextScoreUtilities.toLetterIndices(input);
+        countNGrams(letters, 0, letters.length - nGramLength + 1, nGramLength, denseCounts, frequencyCount);
+    }
+
+    /**
+     * Ingests known good input from a text file, or from every file beneath a directory, read as UTF-8.  Files are
+     * streamed in chunks rather than loaded whole, and the chunks are filtered and counted in parallel with one
+     * worker per processor.
+     * @param path Path to a text file or a directory of text files
+     */
+    public void recordCorpus(String path) throws IOException {
+        recordCorpus(path, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Ingests known good input from a text file, or from every file beneath a directory, read as UTF-8.  Files are
+     * streamed in chunks rather than loaded whole, and the chunks are filtered and counted in parallel.
+     * @param path Path to a text file or a directory of text files
+     * @param threadCount The number of workers filtering and counting chunks
+     */
+    public void recordCorpus(String path, int threadCount) throws IOException {
+        recordCorpus(path, threadCount, corpusChunkSize);
+    }
+
+    /**
+     * Ingests a corpus as recordCorpus does, in chunks of a given size.  Small chunks make nGrams spanning the
+     * boundaries between chunks common, which lets tests check that they are counted exactly once.
+     * @param path Path to a text file or a directory of text files
+     * @param threadCount The number of workers filtering and counting chunks
+     * @param chunkSize The number of characters read from a file at a time, at least 2
+     */
+    void recordCorpus(String path, int threadCount, int chunkSize) throws IOException {
+        if (threadCount < 1 || chunkSize < 2) {
+            throw new IllegalArgumentException();
+        }
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(Paths.get(path))) {
+            files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+
+        // Each worker counts into its own table; they are merged once the whole corpus has been read
+        BlockingQueue<CorpusChunk> queue = new ArrayBlockingQueue<>(threadCount * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<CorpusWorker>> workers = new ArrayList<>();
+        for (int i = 0; i < threadCount; ++i) {
+            workers.add(executor.submit(new CorpusWorker(queue)));
+        }
+
+        List<CorpusChunk> chunks = new ArrayList<>();
+        List<CorpusWorker> finishedWorkers = new ArrayList<>();
+        try {
+            for (Path file : files) {
+                readChunks(file, chunkSize, queue, workers, chunks);
+            }
+            for (int i = 0; i < threadCount; ++i) {
+                enqueue(queue, endOfCorpus, workers);
+            }
+
+            // Every worker must succeed before any counts are merged, so that a failure leaves the generator unchanged
+            for (Future<CorpusWorker> future : workers) {
+                finishedWorkers.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (CorpusWorker worker : finishedWorkers) {
+            if (denseCounts != null) {
+                for (int i = 0; i < denseCounts.length; ++i) {
+                    denseCounts[i] += worker.denseCounts[i];
                 }
+            } else {
+                worker.frequencyCount.forEach((nGram, count) -> frequencyCount.merge(nGram, count, Long::sum));
+            }
+        }
+
+        // Workers only count nGrams lying entirely within their chunk.  Those spanning the boundary between two
+        // chunks of the same file are counted here, from the letters at the end of one and the start of the next.
+        byte[] carry = new byte[0];
+        for (CorpusChunk chunk : chunks) {
+            if (!chunk.continuesFile) {
+                carry = new byte[0];
+            }
+            byte[] joined = Arrays.copyOf(carry, carry.length + chunk.head.length);
+            System.arraycopy(chunk.head, 0, joined, carry.length, chunk.head.length);
+            countNGrams(joined, 0, Math.min(carry.length, joined.length - nGramLength + 1), nGramLength,
+                    denseCounts, frequencyCount);
+
+            if (chunk.letterCount >= nGramLength - 1) {
+                carry = chunk.tail;
+            } else {
+                carry = Arrays.copyOfRange(joined, Math.max(0, joined.length - (nGramLength - 1)), joined.length);
+            }
+        }
+    }
+
+    /** A piece of one corpus file, queued for a worker to filter and count */
+    private static class CorpusChunk {
+        CorpusChunk(String chunkText, boolean continuesPreviousChunk) {
+            text = chunkText;
+            continuesFile = continuesPreviousChunk;
+        }
+
+        /** The raw text of the chunk.  Released once the chunk has been counted. */
+        String text;
+        /** Whether the chunk directly follows the previous chunk in the same file */
+        final boolean continuesFile;
+        /** The number of letters remaining after filtering */
+        int letterCount;
+        /** The first and last (nGramLength - 1) letters after filtering, for counting nGrams across boundaries */
+        byte[] head;
+        byte[] tail;
+    }
+
+    /** Filters and counts queued chunks into its own table until it reaches the end of the corpus */
+    private class CorpusWorker implements Callable<CorpusWorker> {
+        CorpusWorker(BlockingQueue<CorpusChunk> chunkQueue) {
+            queue = chunkQueue;
+            if (nGramLength <= TextScoreUtilities.maxDenseNGramLength) {
+                denseCounts = new long[(int) TextScoreUtilities.nGramIndexCount(nGramLength)];
+            }
+        }
+
+        @Override public CorpusWorker call() throws InterruptedException {
+            CorpusChunk chunk;
+            while ((chunk = queue.take()) != endOfCorpus) {
+                byte[] letters = TextScoreUtilities.toLetterIndices(chunk.text);
+                countNGrams(letters, 0, letters.length - nGramLength + 1, nGramLength, denseCounts, frequencyCount);
+
+                final int edgeLength = Math.min(letters.length, nGramLength - 1);
+                chunk.letterCount = letters.length;
+                chunk.head = Arrays.copyOf(letters, edgeLength);
+                chunk.tail = Arrays.copyOfRange(letters, letters.length - edgeLength, letters.length);
+                chunk.text = null;
             }
-        );
+            return this;
+        }
+
+        private final BlockingQueue<CorpusChunk> queue;
+        private long[] denseCounts;
+        private HashMap<String, Long> frequencyCount = new HashMap<String, Long>();
+    }
+
+    /** Reads a file in fixed-size chunks, queueing each for the workers and recording it in file order */
+    private static void readChunks(Path file, int chunkSize, BlockingQueue<CorpusChunk> queue,
+                                   List<Future<CorpusWorker>> workers, List<CorpusChunk> chunks)
+            throws IOException, InterruptedException, ExecutionException {
+        // Corpora frequently contain stray bytes that aren't valid UTF-8; they are filtered out like any other symbol
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Reader reader = Channels.newReader(channel, decoder, -1)) {
+            char[] buffer = new char[chunkSize];
+            boolean continuesFile = false;
+            int filled = 0;
+            int read;
+            while ((read = reader.read(buffer, filled, buffer.length - filled)) != -1) {
+                filled += read;
+                if (filled < buffer.length) {
+                    continue;
+                }
+
+                // Keep a trailing high surrogate together with the rest of its character in the next chunk
+                final int held = Character.isHighSurrogate(buffer[filled - 1]) ? 1 : 0;
+                CorpusChunk chunk = new CorpusChunk(new String(buffer, 0, filled - held), continuesFile);
+                chunks.add(chunk);
+                enqueue(queue, chunk, workers);
+                continuesFile = true;
+
+                buffer[0] = buffer[filled - 1];
+                filled = held;
+            }
+
+            if (filled > 0) {
+                CorpusChunk chunk = new CorpusChunk(new String(buffer, 0, filled), continuesFile);
+                chunks.add(chunk);
+                enqueue(queue, chunk, workers);
+            }
+        }
+    }
+
+    /**
+     * Waits for room in the queue for a chunk.  Rethrows the failure of any worker, since the queue will never drain
+     * once its workers have stopped.
+     */
+    private static void enqueue(BlockingQueue<CorpusChunk> queue, CorpusChunk chunk,
+                                List<Future<CorpusWorker>> workers) throws InterruptedException, ExecutionException {
+        while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            for (Future<CorpusWorker> worker : workers) {
+                if (worker.isDone()) {
+                    worker.get();
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the nGrams of pre-filtered text starting at each position in a range
+     * @param letters Letter indices (A is 0, Z is 25), as produced by TextScoreUtilities.toLetterIndices
+     * @param firstStart The start of the first nGram counted
+     * @param endStart One past the start of the last nGram counted
+     * @param nGramLength The length of each nGram
+     * @param denseCounts Counts indexed by the base-26 value of each nGram, or null to count into the map
+     * @param counts Counts keyed by nGram, used when denseCounts is null
+     */
+    private static void countNGrams(byte[] letters, int firstStart, int endStart, int nGramLength, long[] denseCounts,
+                                    Map<String, Long> counts) {
+        if (endStart <= firstStart) {
+            return;
+        }
+
+        if (denseCounts == null) {
+            char[] nGram = new char[nGramLength];
+            for (int i = firstStart; i < endStart; ++i) {
+                for (int j = 0; j < nGramLength; ++j) {
+                    nGram[j] = (char) ('A' + letters[i + j]);
+                }
+                counts.merge(new String(nGram), 1L, Long::sum);
+            }
+            return;
+        }
+
+        // Roll the index forward one letter at a time, dropping the leading letter of the previous nGram
+        final int leadingPlace = (int) TextScoreUtilities.nGramIndexCount(nGramLength - 1);
+        int index = 0;
+        for (int i = firstStart; i < firstStart + nGramLength; ++i) {
+            index = (index * 26) + letters[i];
+        }
+        ++denseCounts[index];
+        for (int i = firstStart + 1; i < endStart; ++i) {
+            index = ((index - (letters[i - 1] * leadingPlace)) * 26) + letters[i + nGramLength - 1];
+            ++denseCounts[index];
+        }
     }
 
     /** The length of substrings stored.  Longer lengths give higher accuracy but require more memory */
     private final int nGramLength;
     private HashMap<String, Long> frequencyCount = new HashMap<String, Long>();
+    /** Counts indexed by the base-26 value of each nGram.  Used instead of frequencyCount for short nGrams. */
+    private long[] denseCounts;
+
+    /** The number of characters read from a corpus file at a time, unless a test asks for smaller chunks */
+    private static final int corpusChunkSize = 1 << 20;
+    /** Queued once per worker after the last chunk of the corpus */
+    private static final CorpusChunk endOfCorpus = new CorpusChunk(null, false);
 }
@@ -21,6 +21,20 @@ class TextScoreUtilities {
         return sb.toString();
     }
 
+    /**
+     * Filters the input string and encodes each remaining character as its letter index, where A is 0 and Z is 25.
+     * Text encoded once this way can be scored repeatedly without filtering or allocating.
+     * @param input The raw input string
+     */
+    static byte[] toLetterIndices(String input) {
+        String content = filterContent(input);
+        byte[] letters = new byte[content.length()];
+        for (int i = 0; i < letters.length; ++i) {
+            letters[i] = (byte) (content.charAt(i) - 'A');
+        }
+        return letters;
+    }
+
     /** Callback interface to handle substrings */
     interface NGramHandler {
         void HandleNGram(String nGram);
@@ -38,4 +52,54 @@ class TextScoreUtilities {
             handler.HandleNGram(content.substring(i, i + nGramLength));
         }
     }
+
+    /**
+     * Returns the number of distinct nGrams of a given length over the alphabet A-Z, which is also the place value of
+     * the leading letter of an nGram one letter longer
+     * @param nGramLength The length of each nGram
+     */
+    static long nGramIndexCount(int nGramLength) {
+        long count = 1;
+        for (int i = 0; i < nGramLength; ++i) {
+            count *= 26;
+        }
+        return count;
+    }
+
+    /**
+     * Converts an nGram into its base-26 value, where A is 0 and Z is 25.  For example, "BA" maps to 26.
+     * @param nGram The nGram to be converted
+     * @return The index of the nGram, or -1 if it contains characters outside of A-Z
+     */
+    static long nGramIndex(String nGram) {
+        long index = 0;
+        for (int i = 0; i < nGram.length(); ++i) {
+            final char c = nGram.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return -1;
+            }
+            index = (index * 26) + (c - 'A');
+        }
+        return index;
+    }
+
+    /**
+     * Converts the base-26 value of an nGram back into its string form
+     * @param index The index of the nGram, as returned by nGramIndex
+     * @param nGramLength The length of the nGram
+     */
+    static String nGramFromIndex(long index, int nGramLength) {
+        char[] nGram = new char[nGramLength];
+        for (int i = nGramLength - 1; i >= 0; --i) {
+            nGram[i] = (char) ('A' + (int) (index % 26));
+            index /= 26;
+        }
+        return new String(nGram);
+    }
+
+    /** The longest nGram whose base-26 value fits in a long */
+    static final int maxIndexedNGramLength = 13;
+
+    /** The longest nGram stored densely.  26^4 entries is under 4MB; each additional letter multiplies that by 26 */
+    static final int maxDenseNGramLength = 4;
 }
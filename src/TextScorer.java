@@ -1,8 +1,18 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class TextScorer {
     /**
@@ -17,14 +27,22 @@ public class TextScorer {
     }
 
     /**
-     * Creates an object loading values previously saved to a file
+     * Creates an object loading values previously saved to a file.  nGrams are stored by their base-26 value, so they
+     * may be at most 13 letters long, the longest whose value fits in a long; files of longer nGrams are rejected.
      * @param fileName Path to input file containing precomputed list of frequencies
      * @return TextRank object containing the frequencies from the file
+     * @throws IllegalArgumentException if the file is malformed, or its nGrams are longer than 13 letters
      */
     public static TextScorer fromFrequencyFile(String fileName) throws IOException, IllegalArgumentException {
         // For good frequency files, see http://practicalcryptography.com/cryptanalysis/text-characterisation/quadgrams/
         // To generate your own, use TextScoreFrequencyGenerator
         TextScorer scorer = null;
+
+        // nGrams are collected as base-26 values and counts rather than as strings, so that large tables of long
+        // nGrams load without creating objects for each one
+        long[] indices = new long[1024];
+        double[] counts = new double[1024];
+        int entryCount = 0;
         try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
             // Read all of the known frequency counts
             String line;
@@ -35,53 +53,328 @@ public class TextScorer {
                 }
 
                 if (scorer == null) {
+                    if (components[0].length() > TextScoreUtilities.maxIndexedNGramLength) {
+                        throw new IllegalArgumentException();
+                    }
                     scorer = new TextScorer(components[0].length());
                 }
 
-                // We should never see the same nGram multiple times in an input file.
                 // All ngrams should be of equal length
-                if ((scorer.nGramScores.get(components[0]) != null) || (components[0].length() != scorer.nGramLength)) {
+                if (components[0].length() != scorer.nGramLength) {
                     throw new IllegalArgumentException();
                 }
 
-                Double count = Double.parseDouble(components[1]);
-                scorer.nGramScores.put(components[0], count);
+                double count = Double.parseDouble(components[1]);
                 scorer.totalCount += count;
+
+                // nGrams containing characters outside of A-Z can never match filtered content
+                final long index = TextScoreUtilities.nGramIndex(components[0]);
+                if (index < 0) {
+                    continue;
+                }
+                if (entryCount == indices.length) {
+                    indices = Arrays.copyOf(indices, entryCount * 2);
+                    counts = Arrays.copyOf(counts, entryCount * 2);
+                }
+                indices[entryCount] = index;
+                counts[entryCount] = count;
+                ++entryCount;
             }
+        }
+        if (scorer == null) {
+            throw new IllegalArgumentException();
+        }
+
+        // Normalize the counts
+        for (int i = 0; i < entryCount; ++i) {
+            counts[i] = Math.log10(counts[i] / scorer.totalCount);
+        }
+        scorer.baselineFloor = Math.log10(0.01 / scorer.totalCount);
+        scorer.table = scorer.buildTable(indices, counts, entryCount);
+        return scorer;
+    }
+
+    /**
+     * Creates a scorer directly from nGram counts indexed by base-26 value
+     * @param counts The number of times each nGram was observed
+     * @param unindexedCount The number of nGrams observed with characters outside A-Z, which count toward the total
+     * @param length The length of each nGram
+     */
+    static TextScorer fromDenseCounts(long[] counts, long unindexedCount, int length) {
+        TextScorer scorer = new TextScorer(length);
+        scorer.totalCount = unindexedCount;
+        for (long count : counts) {
+            scorer.totalCount += count;
+        }
+
+        double[] scores = new double[counts.length];
+        scorer.baselineFloor = Math.log10(0.01 / scorer.totalCount);
+        for (int i = 0; i < counts.length; ++i) {
+            scores[i] = (counts[i] == 0) ? scorer.baselineFloor : Math.log10((double) counts[i] / scorer.totalCount);
+        }
+        scorer.table = new DenseNGramTable(scores);
+        return scorer;
+    }
+
+    /**
+     * Creates a scorer directly from the counts of observed nGrams, for nGrams too long to count densely
+     * @param counts The number of times each nGram was observed
+     * @param length The length of each nGram
+     */
+    static TextScorer fromSparseCounts(Map<String, Long> counts, int length) {
+        TextScorer scorer = new TextScorer(length);
+        long[] indices = new long[counts.size()];
+        double[] scores = new double[counts.size()];
+        int entryCount = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            scorer.totalCount += entry.getValue();
+            final long index = TextScoreUtilities.nGramIndex(entry.getKey());
+            if (index >= 0) {
+                indices[entryCount] = index;
+                scores[entryCount] = entry.getValue();
+                ++entryCount;
+            }
+        }
+        for (int i = 0; i < entryCount; ++i) {
+            scores[i] = Math.log10(scores[i] / scorer.totalCount);
+        }
+        scorer.baselineFloor = Math.log10(0.01 / scorer.totalCount);
+        scorer.table = SparseNGramTable.fromUnsorted(indices, scores, entryCount, scorer.baselineFloor);
+        return scorer;
+    }
+
+    /**
+     * Creates an object backed by a binary frequency file, as written by saveToBinaryFile.  The file is memory-mapped
+     * rather than parsed, so loading costs almost nothing and processes using the same file share its pages.
+     * @param fileName Path to the binary frequency file
+     * @return TextRank object reading the frequencies from the file
+     */
+    public static TextScorer fromBinaryFile(String fileName) throws IOException, IllegalArgumentException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            // The mapping remains valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.capacity() < binaryHeaderSize || buffer.getInt() != binaryMagic
+                || buffer.getInt() != binaryVersion) {
+            throw new IllegalArgumentException();
+        }
+        final int layout = buffer.getInt();
+        final int length = buffer.getInt();
+        if ((layout == binaryDenseLayout && length > TextScoreUtilities.maxDenseNGramLength)
+                || (layout == binarySparseLayout && length > TextScoreUtilities.maxIndexedNGramLength)
+                || (layout != binaryDenseLayout && layout != binarySparseLayout)) {
+            throw new IllegalArgumentException();
+        }
+        TextScorer scorer = new TextScorer(length);
+        scorer.baselineFloor = buffer.getDouble();
+        scorer.totalCount = buffer.getLong();
 
-            // Normalize the counts
-            for (Map.Entry<String, Double> entry : scorer.nGramScores.entrySet()) {
-                entry.setValue(Math.log10(entry.getValue() / scorer.totalCount));
+        // Only files over the same alphabet as filtered content can be used
+        byte[] alphabet = new byte[buffer.getInt()];
+        buffer.get(alphabet);
+        if (!Arrays.equals(alphabet, binaryAlphabet)) {
+            throw new IllegalArgumentException();
+        }
+
+        if (layout == binarySparseLayout) {
+            // The sorted nGram values are followed by their scores
+            final long entryBytes = Long.BYTES + Float.BYTES;
+            if ((buffer.capacity() - binaryHeaderSize) % entryBytes != 0) {
+                throw new IllegalArgumentException();
             }
-            scorer.baselineFloor = Math.log10(0.01 / scorer.totalCount);
+            final int entryCount = (int) ((buffer.capacity() - binaryHeaderSize) / entryBytes);
+            final int scoresStart = binaryHeaderSize + (entryCount * Long.BYTES);
+            LongBuffer indices = buffer.slice(binaryHeaderSize, entryCount * Long.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            FloatBuffer scores = buffer.slice(scoresStart, entryCount * Float.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            scorer.table = new MappedSparseNGramTable(indices, scores, scorer.baselineFloor);
+            return scorer;
         }
+
+        final int entryCount = (int) TextScoreUtilities.nGramIndexCount(length);
+        if (buffer.capacity() != binaryHeaderSize + ((long) entryCount * Double.BYTES)) {
+            throw new IllegalArgumentException();
+        }
+        buffer.position(binaryHeaderSize);
+        DoubleBuffer scores = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        scorer.table = new MappedNGramTable(scores);
         return scorer;
     }
 
-    private class ScoreCalculator implements TextScoreUtilities.NGramHandler {
-        /**
-         * Calculates the score for a text string by accumulating scores for each substring
-         * @param ngrams Mapping of substring to score
-         */
-        public ScoreCalculator(Map<String, Double> ngrams) {
-            ngramScores = ngrams;
-        }
-
-        public void HandleNGram(String nGram) {
-            Double currentScore = ngramScores.get(nGram);
-            if (currentScore == null) {
-                // TODO: Don't filter out invalid characters before this function.  Penalize strings with unprintable
-                // characters particularly harshly (baseline * 100) so that brute force attempts that can produce
-                // invalid characters (XOR, etc.) are penalized accordingly
-                score += baselineFloor;
-            } else {
-                score += currentScore;
+    /**
+     * Saves the normalized frequencies to a binary file that can be memory-mapped by fromBinaryFile.  The file holds
+     * a header (layout, nGram length, alphabet, floor and total count) followed by the scores.  Short nGrams use the
+     * dense layout, the score of every possible nGram as a double.  Longer nGrams use the sparse layout, the sorted
+     * base-26 values of the observed nGrams as longs followed by their scores as floats.
+     * @param fileName Path to output file
+     */
+    public void saveToBinaryFile(String fileName) throws IOException {
+        SparseNGramTable sparseTable = null;
+        if (table instanceof SparseNGramTable) {
+            sparseTable = (SparseNGramTable) table;
+        } else if (table instanceof MappedSparseNGramTable) {
+            sparseTable = ((MappedSparseNGramTable) table).toHeap();
+        }
+
+        final int entryCount = (sparseTable == null) ? (int) TextScoreUtilities.nGramIndexCount(nGramLength)
+                : sparseTable.size();
+        final int entryBytes = (sparseTable == null) ? Double.BYTES : (Long.BYTES + Float.BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(binaryHeaderSize + (entryCount * entryBytes));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(binaryMagic);
+        buffer.putInt(binaryVersion);
+        buffer.putInt((sparseTable == null) ? binaryDenseLayout : binarySparseLayout);
+        buffer.putInt(nGramLength);
+        buffer.putDouble(baselineFloor);
+        buffer.putLong(totalCount);
+        buffer.putInt(binaryAlphabet.length);
+        buffer.put(binaryAlphabet);
+        buffer.position(binaryHeaderSize);
+        if (sparseTable == null) {
+            for (int i = 0; i < entryCount; ++i) {
+                buffer.putDouble(table.score(i));
+            }
+        } else {
+            for (int i = 0; i < entryCount; ++i) {
+                buffer.putLong(sparseTable.indexAt(i));
             }
+            for (int i = 0; i < entryCount; ++i) {
+                buffer.putFloat(sparseTable.scoreAt(i));
+            }
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Converts a text frequency file, as read by fromFrequencyFile, into a binary file readable by fromBinaryFile
+     * @param textFileName Path to input file containing precomputed list of frequencies
+     * @param binaryFileName Path to output file
+     */
+    public static void convertFrequencyFile(String textFileName, String binaryFileName) throws IOException {
+        fromFrequencyFile(textFileName).saveToBinaryFile(binaryFileName);
+    }
+
+    /**
+     * Returns a scorer with the same frequencies which sums the nGrams of long texts with SIMD instructions, through
+     * the Vector API.  This needs the classes compiled from src-vector on the class path and the JVM started with
+     * --add-modules jdk.incubator.vector; without them, or for nGrams too long to be stored densely, this scorer is
+     * returned unchanged.  A memory-mapped table is copied onto the heap.  Vector sums are accumulated in a different
+     * order, so scores may differ from this scorer's in the last few bits.
+     * @return The vectorized scorer, or this scorer if vector scoring isn't possible
+     */
+    public TextScorer vectorized() {
+        double[] scores;
+        if (vectorSummer == null) {
+            return this;
+        } else if (table instanceof DenseNGramTable) {
+            scores = ((DenseNGramTable) table).getScores();
+        } else if (table instanceof MappedNGramTable) {
+            scores = ((MappedNGramTable) table).toArray();
+        } else {
+            return this;
+        }
+
+        TextScorer scorer = new TextScorer(nGramLength);
+        scorer.baselineFloor = baselineFloor;
+        scorer.totalCount = totalCount;
+        scorer.table = new DenseNGramTable(scores);
+        scorer.denseScores = scores;
+        scorer.summer = vectorSummer;
+        return scorer;
+    }
+
+    /**
+     * Returns a scorer with the same frequencies stored as fixed-point codes, which sums the nGrams of a text as
+     * integers.  A 16-bit quadgram table takes under a megabyte and an 8-bit one under half, against 3.6MB for
+     * doubles, so that far more of it stays in cache during a search.  Each nGram's score is rounded to the nearest
+     * of evenly spaced values between the lowest and highest scores; QuantizationReport measures the effect.  nGrams
+     * too long to be stored densely aren't quantized, and this scorer is returned unchanged.
+     * @param bits The width of each code: 16 or 8
+     * @return The quantized scorer, or this scorer if its table can't be quantized
+     */
+    public TextScorer quantized(int bits) {
+        double[] scores;
+        if (bits != 16 && bits != 8) {
+            throw new IllegalArgumentException();
+        } else if (table instanceof DenseNGramTable) {
+            scores = ((DenseNGramTable) table).getScores();
+        } else if (table instanceof MappedNGramTable) {
+            scores = ((MappedNGramTable) table).toArray();
+        } else if (table instanceof QuantizedNGramTable) {
+            // Quantizing again would compound the rounding
+            throw new IllegalStateException();
+        } else {
+            return this;
+        }
+
+        TextScorer scorer = new TextScorer(nGramLength);
+        scorer.baselineFloor = baselineFloor;
+        scorer.totalCount = totalCount;
+        scorer.quantizedTable = QuantizedNGramTable.quantize(scores, bits);
+        scorer.table = scorer.quantizedTable;
+        return scorer;
+    }
+
+    /** Returns the width in bits of each quantized nGram score, or 0 if the scores are stored exactly */
+    public int getQuantizationBits() {
+        return (quantizedTable == null) ? 0 : quantizedTable.getBits();
+    }
+
+    /** Returns whether the Vector API scoring classes and module are available, so that vectorized can use them */
+    public static boolean isVectorScoringAvailable() {
+        return vectorSummer != null;
+    }
+
+    /** Loads the Vector API summer by name, so that this class doesn't depend on the incubator module */
+    private static DenseNGramSummer loadVectorSummer() {
+        try {
+            return (DenseNGramSummer) Class.forName("VectorDenseNGramSummer").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // The classes weren't compiled in, or the JVM wasn't started with the incubator module
+            return null;
+        }
+    }
+
+    /**
+     * Chooses the storage for the normalized nGram scores.  Short nGrams are packed into a flat array indexed by the
+     * base-26 value of each nGram, so that lookups require no searching, with unseen nGrams pre-filled with the
+     * baseline floor.  Longer nGrams are kept in a sorted sparse table.
+     * @param indices The base-26 value of each observed nGram
+     * @param scores The normalized score of each observed nGram
+     * @param entryCount The number of observed nGrams
+     * @throws IllegalArgumentException if an nGram appears more than once
+     */
+    private NGramTable buildTable(long[] indices, double[] scores, int entryCount) {
+        if (nGramLength > TextScoreUtilities.maxDenseNGramLength) {
+            return SparseNGramTable.fromUnsorted(indices, scores, entryCount, baselineFloor);
         }
 
-        public double getScore() { return score; }
-        private double score = 0.0;
-        private Map<String, Double> ngramScores;
+        // Unset entries are marked so that repeated nGrams can be detected
+        double[] denseScores = new double[(int) TextScoreUtilities.nGramIndexCount(nGramLength)];
+        Arrays.fill(denseScores, Double.NaN);
+        for (int i = 0; i < entryCount; ++i) {
+            if (!Double.isNaN(denseScores[(int) indices[i]])) {
+                throw new IllegalArgumentException();
+            }
+            denseScores[(int) indices[i]] = scores[i];
+        }
+        for (int i = 0; i < denseScores.length; ++i) {
+            if (Double.isNaN(denseScores[i])) {
+                denseScores[i] = baselineFloor;
+            }
+        }
+        return new DenseNGramTable(denseScores);
     }
 
     /**
@@ -92,14 +385,174 @@ public class TextScorer {
     public double score(String input) {
         // TODO: Consider checking the length of input versus the length of the cleaned input to make sure we're not
         // throwing out too many invalid characters
-        ScoreCalculator calc = new ScoreCalculator(nGramScores);
-        TextScoreUtilities.forEachNGram(input, nGramLength, calc);
-        return calc.getScore();
+        return score(TextScoreUtilities.toLetterIndices(input));
+    }
+
+    /**
+     * Ranks the resemblance of pre-filtered text to the source language of the scorer
+     * @param letters Letter indices (A is 0, Z is 25), as produced by TextScoreUtilities.toLetterIndices
+     * @return
+     */
+    public double score(byte[] letters) {
+        return score(letters, 0, letters.length);
+    }
+
+    /**
+     * Ranks the resemblance of part of a pre-filtered text to the source language of the scorer.  When the nGram
+     * length allows a dense table, this performs no allocation.
+     * @param letters Letter indices (A is 0, Z is 25), as produced by TextScoreUtilities.toLetterIndices
+     * @param offset The index of the first letter to be ranked
+     * @param length The number of letters to be ranked
+     * @return
+     */
+    public double score(byte[] letters, int offset, int length) {
+        double score = 0.0;
+        if (length < nGramLength) {
+            return score;
+        }
+        if (summer != null && length >= minimumVectorLength) {
+            return summer.sum(denseScores, letters, offset, length, nGramLength);
+        }
+        if (quantizedTable != null) {
+            return quantizedTable.toScore(quantizedTable.sumCodes(letters, offset, length, nGramLength),
+                    length - nGramLength + 1);
+        }
+
+        // Roll the index forward one letter at a time, dropping the leading letter of the previous nGram
+        final int end = offset + length;
+        final long leadingPlace = TextScoreUtilities.nGramIndexCount(nGramLength - 1);
+        long index = 0;
+        for (int i = offset; i < offset + nGramLength; ++i) {
+            index = (index * 26) + letters[i];
+        }
+        score += table.score(index);
+        for (int i = offset + nGramLength; i < end; ++i) {
+            index = ((index - (letters[i - nGramLength] * leadingPlace)) * 26) + letters[i];
+            score += table.score(index);
+        }
+        return score;
+    }
+
+    /**
+     * Ranks the resemblance of a ciphertext decoded with a key to the source language of the scorer, working from
+     * the ciphertext's nGram histogram rather than from decoded text
+     * @param cipherModel The nGram histogram of the ciphertext.  Its nGram length must match the scorer's.
+     * @param key The key used to decode the ciphertext
+     * @return
+     */
+    public double score(CipherNGramModel cipherModel, KeyedSubstitution key) {
+        if (cipherModel.getNGramLength() != nGramLength) {
+            throw new IllegalArgumentException();
+        }
+
+        if (quantizedTable != null) {
+            long codeSum = 0;
+            long nGramCount = 0;
+            for (int n = 0; n < cipherModel.nGramCounts.length; ++n) {
+                final long index = key.decodeNGram(cipherModel.nGramLetters, n * nGramLength, nGramLength);
+                codeSum += (long) cipherModel.nGramCounts[n] * quantizedTable.code(index);
+                nGramCount += cipherModel.nGramCounts[n];
+            }
+            return quantizedTable.toScore(codeSum, nGramCount);
+        }
+
+        double score = 0.0;
+        for (int n = 0; n < cipherModel.nGramCounts.length; ++n) {
+            final long index = key.decodeNGram(cipherModel.nGramLetters, n * nGramLength, nGramLength);
+            score += cipherModel.nGramCounts[n] * table.score(index);
+        }
+        return score;
+    }
+
+    /** Returns the length of the nGrams used by this scorer */
+    public int getNGramLength() {
+        return nGramLength;
+    }
+
+    /**
+     * Returns the score of a single nGram
+     * @param index The base-26 value of the nGram, where A is 0 and Z is 25
+     */
+    double nGramScore(long index) {
+        return table.score(index);
+    }
+
+    /** Returns the fixed-point table of a quantized scorer, or null if its scores are stored exactly */
+    QuantizedNGramTable getQuantizedTable() {
+        return quantizedTable;
+    }
+
+    /**
+     * Returns how often each sequence of letters begins an nGram in the language, summed from the frequencies of the
+     * observed nGrams.  For a single letter, these are the language's letter frequencies.  Computed once per order.
+     * @param order The length of the leading sequences, at most the nGram length
+     * @return The frequency of each sequence, indexed by base-26 value and summing to 1
+     */
+    synchronized double[] leadingDistribution(int order) {
+        if (order < 1 || order > nGramLength || order > TextScoreUtilities.maxDenseNGramLength) {
+            throw new IllegalArgumentException();
+        }
+        if (leadingDistributions[order] != null) {
+            return leadingDistributions[order];
+        }
+
+        double[] distribution = new double[(int) TextScoreUtilities.nGramIndexCount(order)];
+        final long trailingPlace = TextScoreUtilities.nGramIndexCount(nGramLength - order);
+        SparseNGramTable sparseTable = (table instanceof MappedSparseNGramTable)
+                ? ((MappedSparseNGramTable) table).toHeap() : null;
+        if (table instanceof SparseNGramTable) {
+            sparseTable = (SparseNGramTable) table;
+        }
+        if (sparseTable != null) {
+            for (int i = 0; i < sparseTable.size(); ++i) {
+                distribution[(int) (sparseTable.indexAt(i) / trailingPlace)] += Math.pow(10, sparseTable.scoreAt(i));
+            }
+        } else {
+            // Unobserved nGrams hold the baseline floor, and are left out as they are from sparse tables
+            final int entryCount = (int) TextScoreUtilities.nGramIndexCount(nGramLength);
+            for (int i = 0; i < entryCount; ++i) {
+                final double score = table.score(i);
+                if (score != baselineFloor) {
+                    distribution[(int) (i / trailingPlace)] += Math.pow(10, score);
+                }
+            }
+        }
+
+        double total = 0.0;
+        for (double frequency : distribution) {
+            total += frequency;
+        }
+        for (int i = 0; i < distribution.length; ++i) {
+            distribution[i] = (total > 0.0) ? distribution[i] / total : 1.0 / distribution.length;
+        }
+        leadingDistributions[order] = distribution;
+        return distribution;
     }
 
     /** The length of substrings stored.  Longer lengths give higher accuracy but require more memory */
     private final int nGramLength;
     private double baselineFloor;
-    private Map<String, Double> nGramScores = new ConcurrentHashMap<>();
+    /** The normalized score of each nGram */
+    private NGramTable table;
     private long totalCount = 0;
+    /** The results of leadingDistribution, indexed by order, or null until first requested */
+    private final double[][] leadingDistributions = new double[TextScoreUtilities.maxDenseNGramLength + 1][];
+    /** Sums many nGrams at once for vectorized scorers, reading from the dense scores; null for scalar scoring */
+    private DenseNGramSummer summer = null;
+    private double[] denseScores = null;
+    /** The table again, for quantized scorers, so that sums can be accumulated as integer codes; otherwise null */
+    private QuantizedNGramTable quantizedTable = null;
+
+    /** The Vector API summer, or null if it couldn't be loaded */
+    private static final DenseNGramSummer vectorSummer = loadVectorSummer();
+    /** Shorter texts are scored one nGram at a time, since the vector setup would outweigh the gain */
+    private static final int minimumVectorLength = 64;
+
+    /** Binary frequency file layout.  All values are little-endian, and scores begin after a fixed-size header. */
+    private static final int binaryMagic = 0x54585253;
+    private static final int binaryVersion = 1;
+    private static final int binaryDenseLayout = 0;
+    private static final int binarySparseLayout = 1;
+    private static final byte[] binaryAlphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final int binaryHeaderSize = 64;
 }